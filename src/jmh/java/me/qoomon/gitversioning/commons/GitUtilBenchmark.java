@@ -0,0 +1,90 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks git operations against synthetic repositories, see {@link SyntheticRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitUtilBenchmark {
+
+    private static final Pattern ALL_TAGS = Pattern.compile(".*");
+
+    @Param({"100", "10000"})
+    int historyDepth;
+
+    @Param({"10", "1000"})
+    int tagCount;
+
+    @Param({"false", "true"})
+    boolean annotatedTags;
+
+    @Param({"10", "1000"})
+    int fileCount;
+
+    private File directory;
+    private Git git;
+    private Repository repository;
+    private ObjectId head;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, GitAPIException {
+        directory = Files.createTempDirectory("git-util-benchmark").toFile();
+        git = new SyntheticRepository()
+                .historyDepth(historyDepth)
+                .tagCount(Math.min(tagCount, historyDepth))
+                .annotatedTags(annotatedTags)
+                .fileCount(fileCount)
+                .create(directory);
+        repository = git.getRepository();
+        head = repository.resolve("HEAD");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        git.close();
+        FileUtils.delete(directory, FileUtils.RECURSIVE);
+    }
+
+    @Benchmark
+    public GitDescription describe() throws IOException {
+        return GitUtil.describe(head, ALL_TAGS, repository, true);
+    }
+
+    @Benchmark
+    public Map<ObjectId, List<String>> reverseTagRefMap() throws IOException {
+        return GitUtil.reverseTagRefMap(repository);
+    }
+
+    @Benchmark
+    public List<Ref> sortTags() throws IOException {
+        List<Ref> tags = new ArrayList<>(GitUtil.tags(repository));
+        tags.sort(new TagComparator(repository));
+        return tags;
+    }
+
+    @Benchmark
+    public boolean status() throws GitAPIException {
+        return GitUtil.status(repository).isClean();
+    }
+}
@@ -0,0 +1,86 @@
+package me.qoomon.gitversioning.commons;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks {@link Lazy} against the former synchronized implementation, see {@link SynchronizedLazy}.
+ * <p>
+ * <code>get</code> and <code>get_contended</code> measure access of published values by one and by four threads.
+ * <code>getFirst</code> measures creation and first access of new values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyBenchmark {
+
+    @Param({"lazy", "synchronized"})
+    String implementation;
+
+    private Supplier<String> value;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        value = lazy(() -> "1.2.3");
+        value.get();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String get() {
+        return value.get();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String get_contended() {
+        return value.get();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String getFirst() {
+        return lazy(() -> "1.2.3").get();
+    }
+
+    private Supplier<String> lazy(Callable<String> initializer) {
+        return implementation.equals("lazy")
+                ? Lazy.by(initializer)
+                : new SynchronizedLazy<>(initializer);
+    }
+
+    /**
+     * Former {@link Lazy} implementation.
+     */
+    static final class SynchronizedLazy<T> implements Supplier<T> {
+
+        private volatile Callable<T> initializer;
+        private T value;
+
+        SynchronizedLazy(Callable<T> initializer) {
+            this.initializer = initializer;
+        }
+
+        public T get() {
+            if (initializer != null) {
+                synchronized (this) {
+                    if (initializer != null) {
+                        try {
+                            value = initializer.call();
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                        initializer = null;
+                    }
+                }
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package me.qoomon.gitversioning.commons;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks placeholder substitution of typical version and property formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilBenchmark {
+
+    @Param({
+            "${version}",
+            "${ref}-SNAPSHOT",
+            "${describe.tag.version.major}.${describe.tag.version.minor}.${describe.tag.version.patch.next}-${describe.distance}-${commit.short}${dirty:+-dirty}",
+    })
+    String format;
+
+    private Map<String, Supplier<String>> placeholderMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        placeholderMap = new HashMap<>();
+        placeholderMap.put("version", () -> "1.2.3");
+        placeholderMap.put("ref", () -> "feature-test");
+        placeholderMap.put("describe.tag.version.major", () -> "1");
+        placeholderMap.put("describe.tag.version.minor", () -> "2");
+        placeholderMap.put("describe.tag.version.patch.next", () -> "4");
+        placeholderMap.put("describe.distance", () -> "42");
+        placeholderMap.put("commit.short", () -> "0123456");
+        placeholderMap.put("dirty", () -> null);
+    }
+
+    @Benchmark
+    public String substituteText() {
+        return StringUtil.substituteText(format, placeholderMap);
+    }
+}
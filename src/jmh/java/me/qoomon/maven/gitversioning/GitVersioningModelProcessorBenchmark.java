@@ -0,0 +1,125 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.eclipse.jgit.util.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+import static me.qoomon.maven.gitversioning.GitVersioningModelProcessor.GIT_VERSIONING_POM_NAME;
+import static me.qoomon.maven.gitversioning.GitVersioningModelProcessor.VERSION_PATTERN;
+
+/**
+ * Benchmarks version computation and git versioned pom generation of synthetic reactors, see {@link SyntheticReactor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitVersioningModelProcessorBenchmark {
+
+    private static final String GIT_VERSION = "feature-test-SNAPSHOT";
+
+    @Param({"10", "100"})
+    int moduleCount;
+
+    @Param({"3", "30"})
+    int dependencyCount;
+
+    private File directory;
+    private final List<File> pomFiles = new ArrayList<>();
+    private final List<byte[]> poms = new ArrayList<>();
+    private final List<Model> models = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("model-processor-benchmark").toFile();
+        pomFiles.addAll(new SyntheticReactor()
+                .moduleCount(moduleCount)
+                .dependencyCount(dependencyCount)
+                .create(directory));
+        for (File pomFile : pomFiles) {
+            poms.add(Files.readAllBytes(pomFile.toPath()));
+
+            // model as updated by GitVersioningModelProcessor
+            Model model = MavenUtil.readModel(pomFile);
+            model.setPomFile(pomFile);
+            if (model.getParent() != null) {
+                model.getParent().setVersion(GIT_VERSION);
+            }
+            model.setVersion(GIT_VERSION);
+            for (Dependency dependency : model.getDependencies()) {
+                if (SyntheticReactor.GROUP_ID.equals(dependency.getGroupId())) {
+                    dependency.setVersion(GIT_VERSION);
+                }
+            }
+            models.add(model);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.delete(directory, FileUtils.RECURSIVE);
+    }
+
+    @Benchmark
+    public String nextVersion() {
+        Matcher matcher = VERSION_PATTERN.matcher("v1.2.3-rc.4");
+        matcher.find();
+        return GitVersioningModelProcessor.nextVersion(matcher);
+    }
+
+    /**
+     * Reads of processed models as by a reactor build, each model is read by its owner once
+     * and the root model is read again by each module as its parent.
+     * Same steps as GitVersioningModelProcessor#copyIfShared for each read, except model processing.
+     */
+    @Benchmark
+    public int readProcessedModels() {
+        int size = 0;
+        GitVersioningModelProcessor.ProcessedModel rootModel = null;
+        for (Model model : models) {
+            GitVersioningModelProcessor.ProcessedModel processedModel = new GitVersioningModelProcessor.ProcessedModel(model);
+            if (rootModel == null) {
+                rootModel = processedModel;
+            }
+            size += read(processedModel, model).getDependencies().size();
+        }
+        for (Model model : models.subList(1, models.size())) {
+            size += read(rootModel, model).getDependencies().size();
+        }
+        return size;
+    }
+
+    private static Model read(GitVersioningModelProcessor.ProcessedModel processedModel, Model projectModel) {
+        Model model = processedModel.get(projectModel);
+        return model == projectModel ? model : model.clone();
+    }
+
+    /**
+     * Same steps as GitVersioningModelProcessor#writePomFile for each module, except cache state file handling.
+     * Git versioned pom files are written at the first invocation only, subsequent invocations compare content.
+     */
+    @Benchmark
+    public int writePomFiles() throws IOException {
+        int size = 0;
+        for (int i = 0; i < pomFiles.size(); i++) {
+            byte[] pom = poms.get(i);
+            Model model = models.get(i);
+            size += GitVersionedPomCache.digest(pom, model).length();
+            byte[] gitVersionedPom = PomRewriter.rewrite(pom, model);
+            MavenUtil.writeXml(new File(model.getProjectDirectory(), GIT_VERSIONING_POM_NAME), gitVersionedPom);
+            size += gitVersionedPom.length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,174 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.internal.storage.commitgraph.ChangedPathFilter;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphFormatException;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphLoader;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphWriter;
+import org.eclipse.jgit.internal.storage.commitgraph.GraphCommits;
+import org.eclipse.jgit.internal.storage.file.LockFile;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Set;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Commit-graph file of a repository, see <code>git commit-graph</code>.
+ * <p>
+ * JGit provides commit-graph files by its internal API only, which may change with any JGit release.
+ * So all of its usages are confined to this class, a JGit upgrade breaks in one place only.
+ * <p>
+ * Only the single file <code>objects/info/commit-graph</code> is supported, as by JGit.
+ * Split commit-graph chains <code>objects/info/commit-graphs/commit-graph-chain</code>, as written by
+ * <code>git maintenance</code>, <code>fetch.writeCommitGraph</code> or <code>gc.writeCommitGraph</code> of recent git versions,
+ * are neither read nor shadowed by a written single file, that is logged on debug level.
+ */
+final class CommitGraphFile {
+
+    private static final Logger logger = getLogger(CommitGraphFile.class);
+
+    static final CommitGraphFile EMPTY = new CommitGraphFile(CommitGraph.EMPTY);
+
+    private final CommitGraph commitGraph;
+
+    private CommitGraphFile(CommitGraph commitGraph) {
+        this.commitGraph = commitGraph;
+    }
+
+    /**
+     * @param commonRepository common repository, see {@link GitUtil#worktreesFix_getCommonRepository(Repository)}
+     * @return commit-graph file location, does not need to exist
+     */
+    static File file(Repository commonRepository) {
+        return new File(commonRepository.getDirectory(), "objects/info/commit-graph");
+    }
+
+    /**
+     * @param commonRepository common repository, see {@link GitUtil#worktreesFix_getCommonRepository(Repository)}
+     * @return split commit-graph chain location, does not need to exist
+     */
+    static File chainFile(Repository commonRepository) {
+        return new File(commonRepository.getDirectory(), "objects/info/commit-graphs/commit-graph-chain");
+    }
+
+    /**
+     * Reads and parses the whole commit-graph file.
+     *
+     * @param commonRepository common repository, see {@link GitUtil#worktreesFix_getCommonRepository(Repository)}
+     * @param readChangedPaths read changed-path Bloom filters, see {@link #mayChangePath(int, byte[])}
+     * @return commit-graph or {@link #EMPTY} if there is none or it is malformed
+     */
+    static CommitGraphFile read(Repository commonRepository, boolean readChangedPaths) throws IOException {
+        File commitGraphFile = file(commonRepository);
+        if (!commitGraphFile.isFile()) {
+            if (chainFile(commonRepository).isFile()) {
+                logger.debug("commit-graph chain is not supported, commit-graph is ignored - {}", chainFile(commonRepository));
+            }
+            return EMPTY;
+        }
+        try (InputStream in = Files.newInputStream(commitGraphFile.toPath())) {
+            return new CommitGraphFile(CommitGraphLoader.read(in, readChangedPaths));
+        } catch (CommitGraphFormatException e) {
+            // fall back to parse commits
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Writes the commit-graph file of all commits reachable from <code>commits</code>.
+     * <p>
+     * The file is written to the lock file <code>commit-graph.lock</code> and renamed afterwards, like git does,
+     * so concurrent builds and git processes never read a partially written file.
+     * If the lock is held by another process, nothing is written.
+     * If there is a split commit-graph chain, nothing is written either, because git reads a single file in favour of the chain,
+     * so a written file would shadow the chain maintained by git.
+     *
+     * @param commonRepository common repository, see {@link GitUtil#worktreesFix_getCommonRepository(Repository)}
+     * @param changedPaths     compute changed-path Bloom filters
+     * @param metrics          counts written commits as <code>git.commitGraph.commits</code>
+     *                         and computed changed-path Bloom filters as <code>git.commitGraph.bloom.computed</code>
+     * @return true if the commit-graph file has been written
+     */
+    static boolean write(Repository commonRepository, Set<ObjectId> commits, boolean changedPaths, Metrics metrics) throws IOException {
+        File commitGraphFile = file(commonRepository);
+        if (chainFile(commonRepository).isFile()) {
+            logger.debug("commit-graph chain is not supported, commit-graph is not written - {}", chainFile(commonRepository));
+            return false;
+        }
+        Files.createDirectories(commitGraphFile.getParentFile().toPath());
+        LockFile lock = new LockFile(commitGraphFile);
+        if (!lock.lock()) {
+            // another process is writing the commit-graph file right now
+            return false;
+        }
+        try (RevWalk walk = new RevWalk(commonRepository)) {
+            GraphCommits graphCommits = GraphCommits.fromWalk(NullProgressMonitor.INSTANCE, commits, walk);
+            CommitGraphWriter.Stats stats;
+            try (OutputStream out = lock.getOutputStream()) {
+                stats = new CommitGraphWriter(graphCommits, changedPaths).write(NullProgressMonitor.INSTANCE, out);
+            }
+            if (!lock.commit()) {
+                return false;
+            }
+            Metrics.Counter writtenCommits = metrics.counter("git.commitGraph.commits");
+            graphCommits.forEach(commit -> writtenCommits.increment());
+            metrics.counter("git.commitGraph.bloom.computed").add(stats.getChangedPathFiltersComputed());
+            return true;
+        } finally {
+            // no-op if committed
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of commits
+     */
+    int commitCount() {
+        return (int) commitGraph.getCommitCnt();
+    }
+
+    /**
+     * @return graph position of <code>commitId</code> or a negative value, if the commit is not contained
+     */
+    int position(AnyObjectId commitId) {
+        return commitGraph.findGraphPosition(commitId);
+    }
+
+    /**
+     * @param position graph position, see {@link #position(AnyObjectId)}
+     * @return graph positions of parent commits
+     */
+    int[] parents(int position) {
+        return commitGraph.getCommitData(position).getParents();
+    }
+
+    /**
+     * @param position graph position, see {@link #position(AnyObjectId)}
+     * @return true if the commit has a changed-path Bloom filter
+     */
+    boolean hasChangedPaths(int position) {
+        return commitGraph.getChangedPathFilter(position) != null;
+    }
+
+    /**
+     * @param position graph position, see {@link #position(AnyObjectId)}
+     * @param path     UTF-8 encoded path relative to the work tree root, separated by <code>/</code>
+     * @return false if the commit does not change <code>path</code> compared to its first parent for sure,
+     * true if it may change it or the commit has no changed-path Bloom filter
+     */
+    boolean mayChangePath(int position, byte[] path) {
+        ChangedPathFilter changedPathFilter = commitGraph.getChangedPathFilter(position);
+        return changedPathFilter == null || changedPathFilter.maybeContains(path);
+    }
+}
@@ -0,0 +1,46 @@
+package me.qoomon.gitversioning.commons;
+
+import java.io.File;
+import java.util.Objects;
+
+/**
+ * Path, size and last modified time of a file, to detect file changes without reading the file content.
+ */
+public final class FileFingerprint {
+
+    private final String path;
+    private final long size;
+    private final long lastModified;
+
+    private FileFingerprint(String path, long size, long lastModified) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @param file file, does not need to exist
+     * @return fingerprint of <code>file</code>, size and last modified time are 0 if file does not exist
+     */
+    public static FileFingerprint of(File file) {
+        return new FileFingerprint(file.getAbsolutePath(), file.length(), file.lastModified());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FileFingerprint that = (FileFingerprint) o;
+        return size == that.size && lastModified == that.lastModified && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, size, lastModified);
+    }
+
+    @Override
+    public String toString() {
+        return path + " (size: " + size + ", lastModified: " + lastModified + ")";
+    }
+}
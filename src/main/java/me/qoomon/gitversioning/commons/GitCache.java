@@ -0,0 +1,250 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.synchronizedMap;
+import static me.qoomon.gitversioning.commons.GitUtil.worktreesFix_getCommonRepository;
+import static org.eclipse.jgit.lib.Constants.CONFIG;
+import static org.eclipse.jgit.lib.Constants.SHALLOW;
+
+/**
+ * Cache of repository handles, commit-graph files, tag ref maps and describe results.
+ * <p>
+ * The {@link #shared()} instance lives as long as the JVM,
+ * so consecutive builds within a maven daemon (mvnd) or an embedded maven reuse the results of previous builds.
+ * Entries are validated on every access:
+ * <ul>
+ * <li>repository handles by the fingerprint of the git dir config and commondir file</li>
+ * <li>commit-graph files by their fingerprint</li>
+ * <li>tag ref maps by names and object ids of all tag refs and by the fingerprint of the shallow file</li>
+ * <li>describe results are bound to the tag ref map they have been computed with, keyed by commit, tag pattern, first parent option and max depth,
+ * the least recently used ones are evicted</li>
+ * </ul>
+ * Work tree status is not cached, because work tree changes are not reflected by any git dir file.
+ */
+public final class GitCache {
+
+    private static final GitCache SHARED = new GitCache();
+
+    // bound describe results per tag ref map, each build usually adds one entry only,
+    // least recently used entries are evicted e.g. of former HEAD commits in a maven daemon
+    static final int MAX_DESCRIPTIONS = 64;
+
+    private final Map<File, CachedRepository> repositories = new HashMap<>();
+    private final Map<File, CachedCommitGraph> commitGraphs = new ConcurrentHashMap<>();
+    private final Map<File, TagIndex> tagIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * @return JVM-wide cache instance
+     */
+    public static GitCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param gitDir git directory
+     * @return open repository, must not be closed, because it is shared
+     */
+    public Repository repository(File gitDir) throws IOException {
+        File canonicalGitDir = gitDir.getCanonicalFile();
+        List<FileFingerprint> fingerprints = List.of(
+                FileFingerprint.of(new File(canonicalGitDir, CONFIG)),
+                FileFingerprint.of(new File(canonicalGitDir, "commondir")));
+        synchronized (repositories) {
+            CachedRepository cachedRepository = repositories.get(canonicalGitDir);
+            if (cachedRepository != null && cachedRepository.fingerprints.equals(fingerprints)) {
+                return cachedRepository.repository;
+            }
+            if (cachedRepository != null) {
+                // repository has been replaced e.g. by a fresh clone
+                cachedRepository.repository.close();
+            }
+            Repository repository = new FileRepositoryBuilder().setGitDir(canonicalGitDir).build();
+            repositories.put(canonicalGitDir, new CachedRepository(repository, fingerprints));
+            return repository;
+        }
+    }
+
+    /**
+     * @param commonRepository common repository, see {@link GitUtil#worktreesFix_getCommonRepository(Repository)}
+     * @see CommitGraphFile#read(Repository, boolean)
+     */
+    CommitGraphFile commitGraph(Repository commonRepository, boolean readChangedPaths) throws IOException {
+        File commonGitDir = commonRepository.getDirectory().getCanonicalFile();
+        FileFingerprint fingerprint = FileFingerprint.of(CommitGraphFile.file(commonRepository));
+
+        CachedCommitGraph cachedCommitGraph = commitGraphs.get(commonGitDir);
+        if (cachedCommitGraph != null && cachedCommitGraph.fingerprint.equals(fingerprint)
+                && cachedCommitGraph.readChangedPaths == readChangedPaths) {
+            return cachedCommitGraph.commitGraph;
+        }
+
+        CommitGraphFile commitGraph = CommitGraphFile.read(commonRepository, readChangedPaths);
+        commitGraphs.put(commonGitDir, new CachedCommitGraph(commitGraph, fingerprint, readChangedPaths));
+        return commitGraph;
+    }
+
+    /**
+     * @see GitUtil#tagsPointAt(ObjectId, Repository, Metrics)
+     */
+    public List<String> tagsPointAt(ObjectId revObjectId, Repository repository, Metrics metrics) throws IOException {
+        return tagIndex(repository, metrics).tagRefMap.getOrDefault(revObjectId, emptyList());
+    }
+
+    /**
+     * @see GitUtil#reverseTagRefMap(Repository, Metrics)
+     */
+    public Map<ObjectId, List<String>> reverseTagRefMap(Repository repository, Metrics metrics) throws IOException {
+        return tagIndex(repository, metrics).tagRefMap;
+    }
+
+    /**
+     * @see GitUtil#describe(ObjectId, Pattern, Repository, boolean, Metrics)
+     */
+    public GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent, Metrics metrics) throws IOException {
+        return describe(revObjectId, tagPattern, repository, firstParent, Integer.MAX_VALUE, metrics);
+    }
+
+    /**
+     * @param metrics counts cache hits as <code>git.cache.describe.hits</code>
+     * @see GitUtil#describe(ObjectId, Pattern, Repository, boolean, int, Metrics)
+     */
+    public GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent, int maxDepth, Metrics metrics) throws IOException {
+        if (revObjectId == null) {
+            return GitUtil.describe(null, tagPattern, repository, firstParent, maxDepth, metrics);
+        }
+
+        TagIndex tagIndex = tagIndex(repository, metrics);
+        List<Object> descriptionKey = descriptionKey(revObjectId, tagPattern, firstParent, maxDepth);
+        GitDescription description = tagIndex.descriptions.get(descriptionKey);
+        if (description != null) {
+            metrics.counter("git.cache.describe.hits").increment();
+            return description;
+        }
+
+        description = GitUtil.describe(revObjectId, tagPattern, repository, firstParent, maxDepth, tagIndex.tagRefMap, metrics);
+        tagIndex.descriptions.put(descriptionKey, description);
+        return description;
+    }
+
+    /**
+     * Cached descriptions are reused per pattern, only uncached patterns share a new walk.
+     *
+     * @param metrics counts cache hits as <code>git.cache.describe.hits</code>
+     * @see GitUtil#describe(ObjectId, Map, Repository, boolean, int, Metrics)
+     */
+    public Map<String, GitDescription> describe(ObjectId revObjectId, Map<String, Pattern> tagPatterns, Repository repository, boolean firstParent, int maxDepth, Metrics metrics) throws IOException {
+        if (revObjectId == null) {
+            return GitUtil.describe(null, tagPatterns, repository, firstParent, maxDepth, metrics);
+        }
+
+        TagIndex tagIndex = tagIndex(repository, metrics);
+        Map<String, GitDescription> descriptions = new LinkedHashMap<>();
+        Map<String, Pattern> uncachedTagPatterns = new LinkedHashMap<>();
+        tagPatterns.forEach((name, tagPattern) -> {
+            GitDescription description = tagIndex.descriptions.get(descriptionKey(revObjectId, tagPattern, firstParent, maxDepth));
+            if (description != null) {
+                metrics.counter("git.cache.describe.hits").increment();
+                descriptions.put(name, description);
+            } else {
+                uncachedTagPatterns.put(name, tagPattern);
+            }
+        });
+
+        if (!uncachedTagPatterns.isEmpty()) {
+            Map<String, GitDescription> uncachedDescriptions = GitUtil.describe(revObjectId, uncachedTagPatterns, repository, firstParent, maxDepth, tagIndex.tagRefMap, metrics);
+            uncachedDescriptions.forEach((name, description) -> {
+                descriptions.put(name, description);
+                tagIndex.descriptions.put(descriptionKey(revObjectId, uncachedTagPatterns.get(name), firstParent, maxDepth), description);
+            });
+        }
+
+        // keep order of tag patterns
+        Map<String, GitDescription> orderedDescriptions = new LinkedHashMap<>();
+        tagPatterns.keySet().forEach(name -> orderedDescriptions.put(name, descriptions.get(name)));
+        return orderedDescriptions;
+    }
+
+    private static List<Object> descriptionKey(ObjectId revObjectId, Pattern tagPattern, boolean firstParent, int maxDepth) {
+        return List.of(revObjectId.copy(), tagPattern.pattern(), tagPattern.flags(), firstParent, maxDepth);
+    }
+
+    /**
+     * @param metrics counts cache hits as <code>git.cache.tags.hits</code>
+     */
+    private TagIndex tagIndex(Repository repository, Metrics metrics) throws IOException {
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        File commonGitDir = commonRepository.getDirectory().getCanonicalFile();
+
+        List<Ref> tags = GitUtil.tags(commonRepository);
+        Map<String, ObjectId> tagRefs = new HashMap<>(tags.size() * 2);
+        tags.forEach(tag -> tagRefs.put(tag.getName(), tag.getObjectId()));
+        FileFingerprint shallowFingerprint = FileFingerprint.of(new File(commonGitDir, SHALLOW));
+
+        TagIndex tagIndex = tagIndexes.get(commonGitDir);
+        if (tagIndex != null && tagIndex.tagRefs.equals(tagRefs) && tagIndex.shallowFingerprint.equals(shallowFingerprint)) {
+            metrics.counter("git.cache.tags.hits").increment();
+            return tagIndex;
+        }
+
+        tagIndex = new TagIndex(tagRefs, shallowFingerprint, GitUtil.reverseTagRefMap(commonRepository, tags, metrics));
+        tagIndexes.put(commonGitDir, tagIndex);
+        return tagIndex;
+    }
+
+    private static final class CachedRepository {
+
+        final Repository repository;
+        final List<FileFingerprint> fingerprints;
+
+        CachedRepository(Repository repository, List<FileFingerprint> fingerprints) {
+            this.repository = repository;
+            this.fingerprints = fingerprints;
+        }
+    }
+
+    private static final class CachedCommitGraph {
+
+        final CommitGraphFile commitGraph;
+        final FileFingerprint fingerprint;
+        final boolean readChangedPaths;
+
+        CachedCommitGraph(CommitGraphFile commitGraph, FileFingerprint fingerprint, boolean readChangedPaths) {
+            this.commitGraph = commitGraph;
+            this.fingerprint = fingerprint;
+            this.readChangedPaths = readChangedPaths;
+        }
+    }
+
+    private static final class TagIndex {
+
+        final Map<String, ObjectId> tagRefs;
+        final FileFingerprint shallowFingerprint;
+        final Map<ObjectId, List<String>> tagRefMap;
+        final Map<List<Object>, GitDescription> descriptions = synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, GitDescription> eldest) {
+                return size() > MAX_DESCRIPTIONS;
+            }
+        });
+
+        TagIndex(Map<String, ObjectId> tagRefs, FileFingerprint shallowFingerprint, Map<ObjectId, List<String>> tagRefMap) {
+            this.tagRefs = tagRefs;
+            this.shallowFingerprint = shallowFingerprint;
+            this.tagRefMap = tagRefMap;
+        }
+    }
+}
@@ -4,11 +4,37 @@ public class GitDescription {
     private final String commit;
     private final String tag;
     private final int distance;
+    private final boolean truncated;
+    private final String taggedCommit;
 
     public GitDescription(String commit, String tag, int distance) {
+        this(commit, tag, distance, false);
+    }
+
+    /**
+     * A truncated description has tag <code>root</code> and distance max depth,
+     * regardless of whether a matching tag has been found.
+     *
+     * @param truncated true if the search has been stopped at max depth before a matching tag or the root commit was reached,
+     *                  or if merge commits are followed and the distance to the matching tag exceeds max depth
+     */
+    public GitDescription(String commit, String tag, int distance, boolean truncated) {
+        this(commit, tag, distance, truncated, null);
+    }
+
+    /**
+     * @param taggedCommit commit the matching tag points to
+     */
+    public GitDescription(String commit, String tag, int distance, String taggedCommit) {
+        this(commit, tag, distance, false, taggedCommit);
+    }
+
+    private GitDescription(String commit, String tag, int distance, boolean truncated, String taggedCommit) {
         this.commit = commit;
         this.tag = tag;
         this.distance = distance;
+        this.truncated = truncated;
+        this.taggedCommit = taggedCommit;
     }
 
     public String getCommit() {
@@ -23,6 +49,17 @@ public class GitDescription {
         return distance;
     }
 
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * @return commit the matching tag points to or null if no matching tag has been found, see {@link #isTruncated()}
+     */
+    public String getTaggedCommit() {
+        return taggedCommit;
+    }
+
     @Override
     public String toString() {
         return tag + "-" + distance + "-g" + commit.substring(0,7);
@@ -0,0 +1,81 @@
+package me.qoomon.gitversioning.commons;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of git operations.
+ * <p>
+ * Event attributes are only computed if {@link Event#shouldCommit()} is true, so events cost nothing while recording is off.
+ */
+final class GitEvents {
+
+    private static final String CATEGORY = "Maven Git Versioning";
+
+    private GitEvents() {
+    }
+
+    @Name("me.qoomon.gitversioning.Describe")
+    @Label("Git Describe")
+    @Description("Search of the closest matching tag of a commit")
+    @Category({CATEGORY, "Git"})
+    @StackTrace(false)
+    static final class Describe extends Event {
+
+        @Label("Commit")
+        String commit;
+
+        @Label("Tag Pattern")
+        String tagPattern;
+
+        @Label("First Parent")
+        boolean firstParent;
+
+        @Label("Tag")
+        String tag;
+
+        @Label("Distance")
+        int distance;
+
+        @Label("Max Depth")
+        int maxDepth;
+
+        @Label("Truncated")
+        boolean truncated;
+    }
+
+    @Name("me.qoomon.gitversioning.TagMap")
+    @Label("Git Tag Map")
+    @Description("Build of the map from commits to tags")
+    @Category({CATEGORY, "Git"})
+    @StackTrace(false)
+    static final class TagMap extends Event {
+
+        @Label("Tag Count")
+        int tagCount;
+
+        @Label("Tagged Commit Count")
+        int taggedCommitCount;
+    }
+
+    @Name("me.qoomon.gitversioning.Status")
+    @Label("Git Status")
+    @Description("Status of the work tree")
+    @Category({CATEGORY, "Git"})
+    @StackTrace(false)
+    static final class Status extends Event {
+
+        @Label("Work Tree")
+        String workTree;
+
+        @Label("Clean")
+        boolean clean;
+
+        @Label("Work Tree Entries")
+        long workTreeEntries;
+    }
+}
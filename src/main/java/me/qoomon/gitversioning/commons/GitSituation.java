@@ -8,21 +8,30 @@ import java.io.File;
 import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import static java.time.Instant.EPOCH;
 import static java.time.ZoneOffset.UTC;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static me.qoomon.gitversioning.commons.GitUtil.*;
 
 public class GitSituation {
 
+    // name of describe tag pattern within named describe tag patterns
+    private static final String DESCRIBE_TAG_PATTERN_NAME = "";
+
     private final Repository repository;
     private final File rootDirectory;
+    private final Metrics metrics;
+    private final GitCache cache;
 
     private final ObjectId head;
     private final Supplier<ZonedDateTime> timestamp = Lazy.by(this::timestamp);
@@ -36,12 +45,40 @@ public class GitSituation {
 
     private boolean firstParent = true;
 
-    private Supplier<GitDescription> description = Lazy.by(this::describe);
+    private int describeMaxDepth = Integer.MAX_VALUE;
+
+    private Map<String, Pattern> describeTagPatterns = emptyMap();
+
+    private Lazy<Map<String, GitDescription>> descriptions = Lazy.by(this::describeAll);
+
+    private Lazy<GitDescription> description = Lazy.by(this::describe);
+
+    private Collection<String> modulePaths = emptyList();
+
+    private Lazy<ModuleHistory> moduleHistory = Lazy.by(this::moduleHistory);
+
+    // without describe distance
+    private Supplier<ModuleHistory> moduleCommits = Lazy.by(this::moduleCommits);
 
     public GitSituation(Repository repository) throws IOException {
+        this(repository, new Metrics());
+    }
+
+    public GitSituation(Repository repository, Metrics metrics) throws IOException {
+        this(repository, metrics, new GitCache());
+    }
+
+    /**
+     * @param cache cache of tag ref maps and describe results e.g. {@link GitCache#shared()}
+     */
+    public GitSituation(Repository repository, Metrics metrics, GitCache cache) throws IOException {
         this.repository = repository;
-        this.rootDirectory = worktreesFix_getWorkTree(repository);
-        this.head = worktreesFix_resolveHead(repository);
+        this.metrics = requireNonNull(metrics);
+        this.cache = requireNonNull(cache);
+        try (Metrics.Measurement ignored = metrics.start("git.head")) {
+            this.rootDirectory = worktreesFix_getWorkTree(repository);
+            this.head = worktreesFix_resolveHead(repository);
+        }
     }
 
     public File getRootDirectory() {
@@ -123,7 +160,9 @@ public class GitSituation {
 
     public void setDescribeTagPattern(Pattern describeTagPattern) {
         this.describeTagPattern = requireNonNull(describeTagPattern);
+        this.descriptions = Lazy.by(this::describeAll);
         this.description = Lazy.by(this::describe);
+        this.moduleHistory = Lazy.by(this::moduleHistory);
     }
 
     public Pattern getDescribeTagPattern() {
@@ -136,33 +175,204 @@ public class GitSituation {
 
     public void setFirstParent(boolean firstParent) {
         this.firstParent = firstParent;
+        this.descriptions = Lazy.by(this::describeAll);
+        this.description = Lazy.by(this::describe);
+        this.moduleHistory = Lazy.by(this::moduleHistory);
+        this.moduleCommits = Lazy.by(this::moduleCommits);
+    }
+
+    public int getDescribeMaxDepth() {
+        return describeMaxDepth;
+    }
+
+    /**
+     * @param describeMaxDepth max number of commits to visit by describe, at least 1, see {@link GitDescription#isTruncated()}
+     */
+    public void setDescribeMaxDepth(int describeMaxDepth) {
+        if (describeMaxDepth < 1) {
+            throw new IllegalArgumentException("describe max depth must be at least 1");
+        }
+        this.describeMaxDepth = describeMaxDepth;
+        this.descriptions = Lazy.by(this::describeAll);
+        this.description = Lazy.by(this::describe);
+        this.moduleHistory = Lazy.by(this::moduleHistory);
     }
 
     public GitDescription getDescription() {
         return description.get();
     }
 
+    public Map<String, Pattern> getDescribeTagPatterns() {
+        return describeTagPatterns;
+    }
+
+    /**
+     * Named describe tag patterns are described along with {@link #getDescribeTagPattern()} in one shared walk.
+     *
+     * @param describeTagPatterns describe tag patterns by name
+     */
+    public void setDescribeTagPatterns(Map<String, Pattern> describeTagPatterns) {
+        if (describeTagPatterns.containsKey(DESCRIBE_TAG_PATTERN_NAME)) {
+            throw new IllegalArgumentException("describe tag pattern name must not be empty");
+        }
+        this.describeTagPatterns = Map.copyOf(describeTagPatterns);
+        this.descriptions = Lazy.by(this::describeAll);
+        this.description = Lazy.by(this::describe);
+        this.moduleHistory = Lazy.by(this::moduleHistory);
+    }
+
+    /**
+     * @param name name of describe tag pattern, has to be one of {@link #getDescribeTagPatterns()}
+     * @return description of named describe tag pattern
+     */
+    public GitDescription getDescription(String name) {
+        if (!describeTagPatterns.containsKey(name)) {
+            throw new IllegalArgumentException("unknown describe tag pattern name " + name);
+        }
+        return descriptions.get().get(name);
+    }
+
+    public Collection<String> getModulePaths() {
+        return modulePaths;
+    }
+
+    /**
+     * @param modulePaths module directories relative to root directory, see {@link ModuleHistory}
+     */
+    public void setModulePaths(Collection<String> modulePaths) {
+        this.modulePaths = List.copyOf(modulePaths);
+        this.moduleHistory = Lazy.by(this::moduleHistory);
+        this.moduleCommits = Lazy.by(this::moduleCommits);
+    }
+
+    /**
+     * @param modulePath module directory relative to root directory, has to be one of {@link #getModulePaths()}
+     * @return description of {@link #getDescription()} with distance of commits touching <code>modulePath</code> only
+     */
+    public GitDescription getModuleDescription(String modulePath) {
+        GitDescription description = getDescription();
+        return new GitDescription(description.getCommit(), description.getTag(),
+                moduleHistory.get().getTouchingCommitCount(modulePath), description.isTruncated());
+    }
+
+    /**
+     * @param modulePath module directory relative to root directory, has to be one of {@link #getModulePaths()}
+     * @return most recent commit touching <code>modulePath</code>
+     */
+    public String getModuleRev(String modulePath) {
+        ObjectId lastCommit = moduleCommitHistory().getLastCommit(modulePath);
+        return lastCommit != null ? lastCommit.getName() : NO_COMMIT;
+    }
+
+    /**
+     * @param modulePath module directory relative to root directory, has to be one of {@link #getModulePaths()}
+     * @return commit time of {@link #getModuleRev(String)}
+     */
+    public ZonedDateTime getModuleTimestamp(String modulePath) {
+        ZonedDateTime lastCommitTimestamp = moduleCommitHistory().getLastCommitTimestamp(modulePath);
+        return lastCommitTimestamp != null ? lastCommitTimestamp : ZonedDateTime.ofInstant(EPOCH, UTC);
+    }
+
+    /**
+     * Reuses the module history walk of {@link #getModuleDescription(String)}, if describe is resolved already
+     * and the walk visits commits in the same order, otherwise last commits are determined without resolving describe.
+     * So last commits never depend on whether describe has been resolved before.
+     */
+    private ModuleHistory moduleCommitHistory() {
+        return (moduleHistory.isInitialized() || description.isInitialized()) && moduleHistoryBase(description.get()) == null
+                ? moduleHistory.get()
+                : moduleCommits.get();
+    }
+
+    /**
+     * Writes the commit-graph file for following builds, if there is none or if it is stale,
+     * see {@link GitUtil#writeCommitGraph(Repository, Metrics)}.
+     *
+     * @return true if the commit-graph file has been written
+     */
+    public boolean writeCommitGraph() throws IOException {
+        try (Metrics.Measurement ignored = metrics.start("git.commitGraph.write")) {
+            return GitUtil.writeCommitGraph(repository, metrics);
+        }
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
     // ----- initialization methods ------------------------------------------------------------------------------------
 
     private ZonedDateTime timestamp() throws IOException {
-        return head != null
-                ? GitUtil.revTimestamp(repository, head)
-                : ZonedDateTime.ofInstant(EPOCH, UTC);
+        try (Metrics.Measurement ignored = metrics.start("git.timestamp")) {
+            return head != null
+                    ? GitUtil.revTimestamp(repository, head)
+                    : ZonedDateTime.ofInstant(EPOCH, UTC);
+        }
     }
 
     private String branch() throws IOException {
-        return GitUtil.branch(repository);
+        try (Metrics.Measurement ignored = metrics.start("git.branch")) {
+            return GitUtil.branch(repository);
+        }
     }
 
     private List<String> tags() throws IOException {
-        return head != null ? GitUtil.tagsPointAt(head, repository) : emptyList();
+        try (Metrics.Measurement ignored = metrics.start("git.tags")) {
+            return head != null ? cache.tagsPointAt(head, repository, metrics) : emptyList();
+        }
     }
 
     private boolean clean() throws GitAPIException {
-        return GitUtil.status(repository).isClean();
+        try (Metrics.Measurement ignored = metrics.start("git.status")) {
+            return GitUtil.status(repository, metrics).isClean();
+        }
+    }
+
+    private ModuleHistory moduleHistory() throws IOException {
+        GitDescription description = getDescription();
+        ObjectId base = moduleHistoryBase(description);
+        try (Metrics.Measurement ignored = metrics.start("git.module")) {
+            return base != null
+                    ? ModuleHistory.walk(head, base, modulePaths, repository, metrics)
+                    : ModuleHistory.walk(head, modulePaths, repository, firstParent, description.getDistance(), metrics);
+        }
+    }
+
+    /**
+     * Describe distance is counted by reachability from the tagged commit, if merge commits are followed,
+     * otherwise it is the walk depth of the tagged commit.
+     *
+     * @return tagged commit to count module touching commits from or null to count within describe distance
+     */
+    private ObjectId moduleHistoryBase(GitDescription description) {
+        return !firstParent && !description.isTruncated() && description.getTaggedCommit() != null
+                ? ObjectId.fromString(description.getTaggedCommit())
+                : null;
+    }
+
+    private ModuleHistory moduleCommits() throws IOException {
+        try (Metrics.Measurement ignored = metrics.start("git.module")) {
+            return ModuleHistory.walk(head, modulePaths, repository, firstParent, 0, metrics);
+        }
     }
 
     private GitDescription describe() throws IOException {
-        return GitUtil.describe(head, describeTagPattern, repository, firstParent);
+        if (!describeTagPatterns.isEmpty()) {
+            return descriptions.get().get(DESCRIBE_TAG_PATTERN_NAME);
+        }
+        try (Metrics.Measurement ignored = metrics.start("git.describe")) {
+            return cache.describe(head, describeTagPattern, repository, firstParent, describeMaxDepth, metrics);
+        }
+    }
+
+    /**
+     * @return descriptions of named describe tag patterns and of {@link #getDescribeTagPattern()} by name {@link #DESCRIBE_TAG_PATTERN_NAME}
+     */
+    private Map<String, GitDescription> describeAll() throws IOException {
+        Map<String, Pattern> tagPatterns = new HashMap<>(describeTagPatterns);
+        tagPatterns.put(DESCRIBE_TAG_PATTERN_NAME, describeTagPattern);
+        try (Metrics.Measurement ignored = metrics.start("git.describe")) {
+            return cache.describe(head, tagPatterns, repository, firstParent, describeMaxDepth, metrics);
+        }
     }
 }
\ No newline at end of file
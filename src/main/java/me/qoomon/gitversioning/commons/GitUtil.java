@@ -3,30 +3,51 @@ package me.qoomon.gitversioning.commons;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.errors.CorruptObjectException;
 import org.eclipse.jgit.errors.NoWorkTreeException;
 import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.lib.BitmapIndex.Bitmap;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import static java.lang.Math.min;
 import static java.time.ZoneOffset.UTC;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_COMMIT_GRAPH;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_COMMIT_GRAPH_SECTION;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_CORE_SECTION;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_KEY_READ_CHANGED_PATHS;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_KEY_WRITE_CHANGED_PATHS;
 import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.OBJ_COMMIT;
 import static org.eclipse.jgit.lib.Constants.R_TAGS;
 import static org.eclipse.jgit.lib.Repository.shortenRefName;
 
@@ -35,21 +56,49 @@ public final class GitUtil {
     public static String NO_COMMIT = "0000000000000000000000000000000000000000";
 
     public static Status status(Repository repository) throws GitAPIException {
+        return status(repository, new Metrics());
+    }
+
+    /**
+     * @param metrics counts visited work tree entries as <code>git.status.entries</code>
+     *                and requested work tree content ids as <code>git.status.hashed</code>,
+     *                content is hashed unless the index entry is up to date
+     */
+    public static Status status(Repository repository, Metrics metrics) throws GitAPIException {
+        GitEvents.Status event = new GitEvents.Status();
+        Metrics.Counter workTreeEntries = metrics.counter("git.status.entries");
+        long initialWorkTreeEntries = workTreeEntries.getValue();
+        event.begin();
+
+        Status status;
         try {
-            return Git.wrap(repository).status().call();
+            status = Git.wrap(repository).status()
+                    .setWorkingTreeIt(new CountingFileTreeIterator(repository, metrics))
+                    .call();
         } catch (NoWorkTreeException ex) {
-            return worktreesFix_status(repository);
+            status = worktreesFix_status(repository, metrics);
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.workTree = String.valueOf(repository.isBare() ? repository.getDirectory() : repository.getWorkTree());
+            event.clean = status.isClean();
+            event.workTreeEntries = workTreeEntries.getValue() - initialWorkTreeEntries;
+            event.commit();
+        }
+        return status;
     }
 
-    private static Status worktreesFix_status(Repository repository) throws GitAPIException {
+    private static Status worktreesFix_status(Repository repository, Metrics metrics) throws GitAPIException {
         try {
             try (Repository worktreeRepository = new FileRepositoryBuilder()
                     .setGitDir(repository.getDirectory())
                     .setWorkTree(worktreesFix_getWorkTree(repository))
                     .build();
                  Git worktreeGit = new Git(worktreeRepository)) {
-                return worktreeGit.status().call();
+                return worktreeGit.status()
+                        .setWorkingTreeIt(new CountingFileTreeIterator(worktreeRepository, metrics))
+                        .call();
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -65,42 +114,379 @@ public final class GitUtil {
     }
 
     public static List<String> tagsPointAt(ObjectId revObjectId, Repository repository) throws IOException {
-        return reverseTagRefMap(repository).getOrDefault(revObjectId, emptyList());
+        return tagsPointAt(revObjectId, repository, new Metrics());
+    }
+
+    public static List<String> tagsPointAt(ObjectId revObjectId, Repository repository, Metrics metrics) throws IOException {
+        return reverseTagRefMap(repository, metrics).getOrDefault(revObjectId, emptyList());
     }
 
     public static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent) throws IOException {
-        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        return describe(revObjectId, tagPattern, repository, firstParent, new Metrics());
+    }
+
+    /**
+     * @param metrics counts visited commits as <code>git.describe.commits</code>
+     */
+    public static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent, Metrics metrics) throws IOException {
+        return describe(revObjectId, tagPattern, repository, firstParent, Integer.MAX_VALUE, metrics);
+    }
+
+    /**
+     * @param maxDepth max number of commits to visit,
+     *                 if no matching tag is found within, description is {@link GitDescription#isTruncated() truncated}
+     * @param metrics  counts visited commits as <code>git.describe.commits</code>
+     */
+    public static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent, int maxDepth, Metrics metrics) throws IOException {
+        Map<ObjectId, List<String>> tagRefMap = revObjectId != null ? reverseTagRefMap(repository, metrics) : emptyMap();
+        return describe(revObjectId, tagPattern, repository, firstParent, maxDepth, tagRefMap, metrics);
+    }
+
+    /**
+     * @param tagRefMap tag ref map of <code>repository</code>, see {@link #reverseTagRefMap(Repository, Metrics)}
+     */
+    static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent, int maxDepth,
+                                   Map<ObjectId, List<String>> tagRefMap, Metrics metrics) throws IOException {
+        return describe(revObjectId, Map.of("", tagPattern), repository, firstParent, maxDepth, tagRefMap, metrics).get("");
+    }
+
+    /**
+     * Describes <code>revObjectId</code> for several tag patterns at once.
+     * All patterns share one commit walk, that stops as soon as each pattern has found its tag.
+     *
+     * @param tagPatterns tag patterns by name
+     * @param maxDepth    max number of commits to visit,
+     *                    if no matching tag is found within, description is {@link GitDescription#isTruncated() truncated}
+     * @param metrics     counts visited commits as <code>git.describe.commits</code>
+     * @return descriptions by name of <code>tagPatterns</code>
+     */
+    public static Map<String, GitDescription> describe(ObjectId revObjectId, Map<String, Pattern> tagPatterns, Repository repository, boolean firstParent, int maxDepth, Metrics metrics) throws IOException {
+        Map<ObjectId, List<String>> tagRefMap = revObjectId != null ? reverseTagRefMap(repository, metrics) : emptyMap();
+        return describe(revObjectId, tagPatterns, repository, firstParent, maxDepth, tagRefMap, metrics);
+    }
+
+    /**
+     * @param tagRefMap tag ref map of <code>repository</code>, see {@link #reverseTagRefMap(Repository, Metrics)}
+     */
+    static Map<String, GitDescription> describe(ObjectId revObjectId, Map<String, Pattern> tagPatterns, Repository repository, boolean firstParent, int maxDepth,
+                                                Map<ObjectId, List<String>> tagRefMap, Metrics metrics) throws IOException {
+        // one event per pattern, all of them span the shared walk
+        Map<String, GitEvents.Describe> events = new LinkedHashMap<>();
+        tagPatterns.keySet().forEach(name -> events.put(name, new GitEvents.Describe()));
+        events.values().forEach(GitEvents.Describe::begin);
+
+        Map<String, GitDescription> descriptions = walkDescriptions(revObjectId, tagPatterns, repository, firstParent, maxDepth, tagRefMap, metrics);
+
+        events.values().forEach(GitEvents.Describe::end);
+        events.forEach((name, event) -> {
+            if (event.shouldCommit()) {
+                GitDescription description = descriptions.get(name);
+                event.commit = description.getCommit();
+                event.tagPattern = tagPatterns.get(name).pattern();
+                event.firstParent = firstParent;
+                event.tag = description.getTag();
+                event.distance = description.getDistance();
+                event.maxDepth = maxDepth;
+                event.truncated = description.isTruncated();
+                event.commit();
+            }
+        });
+        return descriptions;
+    }
+
+    private static Map<String, GitDescription> walkDescriptions(ObjectId revObjectId, Map<String, Pattern> tagPatterns, Repository repository, boolean firstParent, int maxDepth,
+                                                                Map<ObjectId, List<String>> tagRefMap, Metrics metrics) throws IOException {
+        Map<String, GitDescription> descriptions = new LinkedHashMap<>();
         if (revObjectId == null) {
-            return new GitDescription(NO_COMMIT, "root", 0);
+            tagPatterns.keySet().forEach(name -> descriptions.put(name, new GitDescription(NO_COMMIT, "root", 0)));
+            return descriptions;
+        }
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+
+        // patterns without any matching tag would end at the root commit or max depth anyway, so they do not need to walk
+        Map<String, Pattern> pendingPatterns = new LinkedHashMap<>();
+        List<String> untaggedPatternNames = new ArrayList<>();
+        tagPatterns.forEach((name, tagPattern) -> {
+            if (hasMatchingTag(tagRefMap, tagPattern)) {
+                pendingPatterns.put(name, tagPattern);
+            } else {
+                untaggedPatternNames.add(name);
+            }
+        });
+
+        // tagged commit by pattern name
+        Map<String, ObjectId> taggedCommits = new HashMap<>();
+        if (!pendingPatterns.isEmpty()) {
+            Metrics.Counter visitedCommits = metrics.counter("git.describe.commits");
+
+            // Walk back commit ancestors looking for tagged ones
+            try (RevWalk walk = new RevWalk(commonRepository)) {
+                walk.setRetainBody(false);
+                walk.setFirstParent(firstParent);
+                walk.markStart(walk.parseCommit(revObjectId));
+                Iterator<RevCommit> walkIterator = walk.iterator();
+                int depth = 0;
+                while (!pendingPatterns.isEmpty() && walkIterator.hasNext()) {
+                    if (depth >= maxDepth) {
+                        for (String name : pendingPatterns.keySet()) {
+                            descriptions.put(name, new GitDescription(revObjectId.getName(), "root", depth, true));
+                        }
+                        pendingPatterns.clear();
+                        break;
+                    }
+                    RevCommit rev = walkIterator.next();
+                    visitedCommits.increment();
+                    List<String> tags = tagRefMap.getOrDefault(rev, emptyList());
+                    if (!tags.isEmpty()) {
+                        final int tagDepth = depth;
+                        pendingPatterns.entrySet().removeIf(pendingPattern -> {
+                            Optional<String> matchingTag = tags.stream()
+                                    .filter(tag -> pendingPattern.getValue().matcher(tag).matches())
+                                    .findFirst();
+                            matchingTag.ifPresent(tag -> {
+                                descriptions.put(pendingPattern.getKey(), new GitDescription(revObjectId.getName(), tag, tagDepth, rev.getName()));
+                                taggedCommits.put(pendingPattern.getKey(), rev);
+                            });
+                            return matchingTag.isPresent();
+                        });
+                    }
+                    depth++;
+                }
+
+                if (!pendingPatterns.isEmpty()) {
+                    if (isShallowRepository(repository)) {
+                        throw new IllegalStateException("couldn't find matching tag in shallow git repository");
+                    }
+                    for (String name : pendingPatterns.keySet()) {
+                        descriptions.put(name, new GitDescription(revObjectId.getName(), "root", depth));
+                    }
+                }
+            }
+        }
+
+        if (!firstParent && !taggedCommits.isEmpty()) {
+            // walk depth of tagged commit depends on walk order, if merge commits are followed
+            // so count all commits reachable from revObjectId, but not from tagged commit
+            Map<ObjectId, Integer> distances = new HashMap<>();
+            for (Entry<String, ObjectId> taggedCommit : taggedCommits.entrySet()) {
+                Integer distance = distances.get(taggedCommit.getValue());
+                if (distance == null) {
+                    // count one commit beyond max depth to detect truncation
+                    distance = reachableCommitCount(revObjectId, taggedCommit.getValue(), commonRepository,
+                            maxDepth < Integer.MAX_VALUE ? maxDepth + 1 : maxDepth, metrics);
+                    distances.put(taggedCommit.getValue(), distance);
+                }
+                GitDescription description = descriptions.get(taggedCommit.getKey());
+                descriptions.put(taggedCommit.getKey(), distance > maxDepth
+                        ? new GitDescription(revObjectId.getName(), "root", maxDepth, true)
+                        : new GitDescription(revObjectId.getName(), description.getTag(), distance, description.getTaggedCommit()));
+            }
+        }
+
+        if (!untaggedPatternNames.isEmpty()) {
+            // count one commit beyond max depth to detect truncation
+            int commitCount = commitCount(revObjectId, commonRepository, firstParent,
+                    maxDepth < Integer.MAX_VALUE ? maxDepth + 1 : maxDepth, metrics);
+            GitDescription description;
+            if (commitCount > maxDepth) {
+                description = new GitDescription(revObjectId.getName(), "root", maxDepth, true);
+            } else if (isShallowRepository(repository)) {
+                throw new IllegalStateException("couldn't find matching tag in shallow git repository");
+            } else {
+                description = new GitDescription(revObjectId.getName(), "root", commitCount);
+            }
+            untaggedPatternNames.forEach(name -> descriptions.put(name, description));
+        }
+
+        // keep order of tag patterns
+        Map<String, GitDescription> orderedDescriptions = new LinkedHashMap<>();
+        tagPatterns.keySet().forEach(name -> orderedDescriptions.put(name, descriptions.get(name)));
+        return orderedDescriptions;
+    }
+
+    private static boolean hasMatchingTag(Map<ObjectId, List<String>> tagRefMap, Pattern tagPattern) {
+        for (List<String> tags : tagRefMap.values()) {
+            for (String tag : tags) {
+                if (tagPattern.matcher(tag).matches()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts commits without looking up tags.
+     * Commits contained in the commit-graph are counted by their graph positions without parsing any object,
+     * see {@link #commitGraph(Repository)}.
+     *
+     * @param commonRepository common repository, see {@link #worktreesFix_getCommonRepository(Repository)}
+     * @param maxCount         max number of commits to count
+     * @param metrics          counts parsed commits as <code>git.describe.commits</code>
+     *                         and commits counted by commit-graph as <code>git.describe.graphCommits</code>
+     * @return number of commits reachable from <code>revObjectId</code>, including <code>revObjectId</code> itself,
+     * but not more than <code>maxCount</code>
+     */
+    static int commitCount(ObjectId revObjectId, Repository commonRepository, boolean firstParent, int maxCount, Metrics metrics) throws IOException {
+        Metrics.Counter visitedCommits = metrics.counter("git.describe.commits");
+        Metrics.Counter graphCommits = metrics.counter("git.describe.graphCommits");
+        CommitGraphFile commitGraph = commitGraph(commonRepository);
+
+        int count = 0;
+        Set<ObjectId> visitedIds = new HashSet<>();
+        BitSet visitedPositions = new BitSet();
+        Deque<ObjectId> pendingIds = new ArrayDeque<>();
+        Deque<Integer> pendingPositions = new ArrayDeque<>();
+        pendingIds.push(revObjectId);
+        try (RevWalk walk = new RevWalk(commonRepository)) {
+            walk.setRetainBody(false);
+            while ((!pendingIds.isEmpty() || !pendingPositions.isEmpty()) && count < maxCount) {
+                if (!pendingPositions.isEmpty()) {
+                    int position = pendingPositions.pop();
+                    if (visitedPositions.get(position)) {
+                        continue;
+                    }
+                    visitedPositions.set(position);
+                    count++;
+                    graphCommits.increment();
+                    int[] parents = commitGraph.parents(position);
+                    int parentCount = firstParent ? min(parents.length, 1) : parents.length;
+                    for (int i = parentCount - 1; i >= 0; i--) {
+                        pendingPositions.push(parents[i]);
+                    }
+                    continue;
+                }
+
+                ObjectId id = pendingIds.pop();
+                int position = commitGraph.position(id);
+                if (position >= 0) {
+                    pendingPositions.push(position);
+                    continue;
+                }
+                if (!visitedIds.add(id)) {
+                    continue;
+                }
+                count++;
+                visitedCommits.increment();
+                RevCommit commit = walk.parseCommit(id);
+                int parentCount = firstParent ? min(commit.getParentCount(), 1) : commit.getParentCount();
+                for (int i = parentCount - 1; i >= 0; i--) {
+                    pendingIds.push(commit.getParent(i).copy());
+                }
+            }
         }
+        return count;
+    }
 
-        Map<ObjectId, List<String>> objectIdListMap = reverseTagRefMap(repository);
+    /**
+     * Counts commits reachable from <code>revObjectId</code>, but not from <code>baseObjectId</code>,
+     * like <code>git rev-list --count baseObjectId..revObjectId</code>.
+     * If both commits have a pack reachability bitmap e.g. written by <code>git gc</code> for ref tips,
+     * commits are counted by the difference of both bitmaps without walking any object.
+     * Otherwise commits are walked.
+     *
+     * @param commonRepository common repository, see {@link #worktreesFix_getCommonRepository(Repository)}
+     * @param maxCount         max number of commits to count
+     * @param metrics          counts distances computed by reachability bitmaps as <code>git.describe.bitmaps</code>
+     *                         and walked commits as <code>git.describe.commits</code>
+     * @return number of commits, but not more than <code>maxCount</code>
+     */
+    static int reachableCommitCount(ObjectId revObjectId, ObjectId baseObjectId, Repository commonRepository, int maxCount, Metrics metrics) throws IOException {
+        try (ObjectReader reader = commonRepository.newObjectReader()) {
+            BitmapIndex bitmapIndex = reader.getBitmapIndex();
+            Bitmap revObjects = bitmapIndex != null ? bitmapIndex.getBitmap(revObjectId) : null;
+            Bitmap baseObjects = bitmapIndex != null ? bitmapIndex.getBitmap(baseObjectId) : null;
+            if (revObjects != null && baseObjects != null) {
+                metrics.counter("git.describe.bitmaps").increment();
+                // bitmaps contain trees and blobs as well, JGit does not expose its commit type bitmap
+                int count = 0;
+                Iterator<BitmapObject> objects = revObjects.andNot(baseObjects).iterator();
+                while (count < maxCount && objects.hasNext()) {
+                    if (objects.next().getType() == OBJ_COMMIT) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        }
 
-        // Walk back commit ancestors looking for tagged one
+        Metrics.Counter visitedCommits = metrics.counter("git.describe.commits");
         try (RevWalk walk = new RevWalk(commonRepository)) {
             walk.setRetainBody(false);
-            walk.setFirstParent(firstParent);
             walk.markStart(walk.parseCommit(revObjectId));
-            Iterator<RevCommit> walkIterator = walk.iterator();
-            int depth = 0;
-            while (walkIterator.hasNext()) {
-                RevCommit rev = walkIterator.next();
-                Optional<String> matchingTag = objectIdListMap.getOrDefault(rev, emptyList()).stream()
-                        .filter(tag -> tagPattern.matcher(tag).matches())
-                        .findFirst();
-
-                if (matchingTag.isPresent()) {
-                    return new GitDescription(revObjectId.getName(), matchingTag.get(), depth);
-                }
-                depth++;
+            walk.markUninteresting(walk.parseCommit(baseObjectId));
+            int count = 0;
+            while (count < maxCount && walk.next() != null) {
+                visitedCommits.increment();
+                count++;
             }
+            return count;
+        }
+    }
 
-            if (isShallowRepository(repository)) {
-                throw new IllegalStateException("couldn't find matching tag in shallow git repository");
+    /**
+     * Reads commit-graph file regardless of <code>core.commitGraph</code> default of JGit,
+     * because git writes commit-graph files by default e.g. on <code>git gc</code>.
+     * Changed-path Bloom filters are read unless <code>commitGraph.readChangedPaths</code> is disabled explicitly,
+     * see {@link CommitGraphFile#mayChangePath(int, byte[])}.
+     * The parsed file is cached by {@link GitCache#shared()} until the file changes.
+     *
+     * @param commonRepository common repository, see {@link #worktreesFix_getCommonRepository(Repository)}
+     * @return commit-graph or {@link CommitGraphFile#EMPTY} if there is none or <code>core.commitGraph</code> is disabled explicitly
+     */
+    static CommitGraphFile commitGraph(Repository commonRepository) throws IOException {
+        if (!commonRepository.getConfig().getBoolean(CONFIG_CORE_SECTION, CONFIG_COMMIT_GRAPH, true)) {
+            return CommitGraphFile.EMPTY;
+        }
+        boolean readChangedPaths = commonRepository.getConfig().getBoolean(CONFIG_COMMIT_GRAPH_SECTION, CONFIG_KEY_READ_CHANGED_PATHS, true);
+        return GitCache.shared().commitGraph(commonRepository, readChangedPaths);
+    }
+
+    /**
+     * Writes the commit-graph file of all commits reachable from any ref, like <code>git commit-graph write --reachable</code>,
+     * if there is none or if it is stale, i.e. it does not contain HEAD
+     * or it lacks changed-path Bloom filters, while <code>commitGraph.writeChangedPaths</code> is enabled.
+     *
+     * @param metrics counts written commits as <code>git.commitGraph.commits</code>
+     *                and computed changed-path Bloom filters as <code>git.commitGraph.bloom.computed</code>
+     * @return true if the commit-graph file has been written
+     * @see CommitGraphFile#write(Repository, Set, boolean, Metrics)
+     */
+    public static boolean writeCommitGraph(Repository repository, Metrics metrics) throws IOException {
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        if (!commonRepository.getConfig().getBoolean(CONFIG_CORE_SECTION, CONFIG_COMMIT_GRAPH, true)) {
+            return false;
+        }
+        ObjectId head = worktreesFix_resolveHead(repository);
+        if (head == null) {
+            return false;
+        }
+        boolean changedPaths = commonRepository.getConfig().getBoolean(CONFIG_COMMIT_GRAPH_SECTION, CONFIG_KEY_WRITE_CHANGED_PATHS, false);
+        if (!isCommitGraphStale(commitGraph(commonRepository), head, changedPaths)) {
+            return false;
+        }
+
+        Set<ObjectId> refCommits = new HashSet<>();
+        refCommits.add(head);
+        try (RevWalk walk = new RevWalk(commonRepository)) {
+            for (Ref ref : commonRepository.getRefDatabase().getRefs()) {
+                if (ref.getObjectId() != null) {
+                    RevObject refObject = walk.peel(walk.parseAny(ref.getObjectId()));
+                    if (refObject instanceof RevCommit) {
+                        refCommits.add(refObject.copy());
+                    }
+                }
             }
+        }
+        return CommitGraphFile.write(commonRepository, refCommits, changedPaths, metrics);
+    }
 
-            return new GitDescription(revObjectId.getName(), "root", depth);
+    private static boolean isCommitGraphStale(CommitGraphFile commitGraph, ObjectId head, boolean changedPaths) {
+        int headPosition = commitGraph.position(head);
+        if (headPosition < 0) {
+            return true;
         }
+        return changedPaths && !commitGraph.hasChangedPaths(headPosition);
     }
 
     public static boolean isShallowRepository(Repository repository) {
@@ -113,11 +499,32 @@ public final class GitUtil {
     }
 
     public static Map<ObjectId, List<String>> reverseTagRefMap(Repository repository) throws IOException {
+        return reverseTagRefMap(repository, new Metrics());
+    }
+
+    /**
+     * @param metrics counts peeled tag refs as <code>git.tags.peeled</code>
+     *                and parsed tag objects as <code>git.tags.parsed</code>, see {@link TagComparator}
+     */
+    public static Map<ObjectId, List<String>> reverseTagRefMap(Repository repository, Metrics metrics) throws IOException {
         Repository commonRepository = worktreesFix_getCommonRepository(repository);
-        TagComparator tagComparator = new TagComparator(commonRepository);
-        return tags(commonRepository).stream()
+        return reverseTagRefMap(commonRepository, tags(commonRepository), metrics);
+    }
+
+    /**
+     * @param commonRepository common repository, see {@link #worktreesFix_getCommonRepository(Repository)}
+     * @param tags             tag refs of <code>commonRepository</code>
+     */
+    static Map<ObjectId, List<String>> reverseTagRefMap(Repository commonRepository, List<Ref> tags, Metrics metrics) {
+        TagComparator tagComparator = new TagComparator(commonRepository, metrics);
+        Metrics.Counter peeledRefs = metrics.counter("git.tags.peeled");
+        GitEvents.TagMap event = new GitEvents.TagMap();
+        event.begin();
+
+        Map<ObjectId, List<String>> tagRefMap = tags.stream()
                 .collect(groupingBy(r -> {
                     try {
+                        peeledRefs.increment();
                         Ref peel = commonRepository.getRefDatabase().peel(r);
                         return peel.getPeeledObjectId() != null
                                 ? peel.getPeeledObjectId()
@@ -133,6 +540,14 @@ public final class GitUtil {
                                 .sorted(tagComparator)
                                 .map(v -> shortenRefName(v.getName())).collect(toList())
                 ));
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.tagCount = tags.size();
+            event.taggedCommitCount = tagRefMap.size();
+            event.commit();
+        }
+        return tagRefMap;
     }
 
     public static ZonedDateTime revTimestamp(Repository repository, ObjectId rev) throws IOException {
@@ -141,6 +556,41 @@ public final class GitUtil {
         return ZonedDateTime.ofInstant(commitTime, UTC);
     }
 
+    private static final class CountingFileTreeIterator extends FileTreeIterator {
+
+        private final Metrics.Counter entries;
+        private final Metrics.Counter hashed;
+
+        CountingFileTreeIterator(Repository repository, Metrics metrics) {
+            super(repository);
+            this.entries = metrics.counter("git.status.entries");
+            this.hashed = metrics.counter("git.status.hashed");
+        }
+
+        private CountingFileTreeIterator(CountingFileTreeIterator parent, File directory) {
+            super(parent, directory, parent.fs, parent.fileModeStrategy);
+            this.entries = parent.entries;
+            this.hashed = parent.hashed;
+        }
+
+        @Override
+        protected AbstractTreeIterator enterSubtree() {
+            return new CountingFileTreeIterator(this, getEntryFile());
+        }
+
+        @Override
+        public void next(int delta) throws CorruptObjectException {
+            entries.add(delta);
+            super.next(delta);
+        }
+
+        @Override
+        public byte[] idBuffer() {
+            hashed.increment();
+            return super.idBuffer();
+        }
+    }
+
     /**
      * @see Repository#getWorkTree()
      */
@@ -158,7 +608,10 @@ public final class GitUtil {
     }
 
     /**
-     * @return common repository
+     * The common repository of a linked work tree is shared by {@link GitCache#shared()},
+     * so repeated calls neither open nor leak a repository per call.
+     *
+     * @return common repository, must not be closed
      */
     public static Repository worktreesFix_getCommonRepository(Repository repository) throws IOException {
         try {
@@ -167,12 +620,14 @@ public final class GitUtil {
         } catch (NoWorkTreeException e) {
             File commonDirFile = new File(repository.getDirectory(), "commondir");
             if (!commonDirFile.exists()) {
-                throw e;
+                // repository is a common repository already e.g. bare repository
+                return repository;
             }
 
             String commonDirPath = Files.readAllLines(commonDirFile.toPath()).get(0);
-            File commonGitDir = new File(repository.getDirectory(), commonDirPath);
-            return new FileRepositoryBuilder().setGitDir(commonGitDir).build();
+            // canonical path is needed to determine work tree of common git dir e.g. '.git/worktrees/feature/../..'
+            File commonGitDir = new File(repository.getDirectory(), commonDirPath).getCanonicalFile();
+            return GitCache.shared().repository(commonGitDir);
         }
     }
 
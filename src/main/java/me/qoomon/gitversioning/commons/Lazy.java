@@ -1,33 +1,94 @@
 package me.qoomon.gitversioning.commons;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.Callable;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Value computed on first access.
+ * <p>
+ * The initializer is called at most once, even if the value is accessed concurrently.
+ * Its result, value or exception, is memoized, so a failed initializer is not called again
+ * and each access fails with the same cause.
+ * <p>
+ * Lock-free, the computing thread is determined by CAS and concurrent callers park until the result is published.
+ * Once published, each access is a single volatile read.
+ */
 public final class Lazy<T> implements Supplier<T> {
 
-    private volatile Callable<T> initializer;
+    private static final VarHandle STATE;
+    private static final VarHandle WAITERS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STATE = lookup.findVarHandle(Lazy.class, "state", Object.class);
+            WAITERS = lookup.findVarHandle(Computation.class, "waiters", Waiter.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final Object INITIALIZED = new Object();
+    private static final Waiter RELEASED = new Waiter(null);
+
+    // Callable initializer -> Computation -> INITIALIZED
+    private volatile Object state;
+    // published by state
     private T value;
+    private Exception exception;
 
     public Lazy(Callable<T> initializer) {
-        this.initializer = requireNonNull(initializer);
+        this.state = requireNonNull(initializer);
     }
 
     public T get() {
-        if (initializer != null) {
-            synchronized (this) {
-                if (initializer != null) {
+        if (state != INITIALIZED) {
+            initialize();
+        }
+        if (exception != null) {
+            throw new RuntimeException(exception);
+        }
+        return value;
+    }
+
+    /**
+     * @return true if value or exception has been computed already
+     */
+    public boolean isInitialized() {
+        return state == INITIALIZED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void initialize() {
+        Object currentState = state;
+        while (currentState != INITIALIZED) {
+            if (currentState instanceof Computation) {
+                ((Computation) currentState).await();
+            } else {
+                Computation computation = new Computation(Thread.currentThread());
+                if (STATE.compareAndSet(this, currentState, computation)) {
                     try {
-                        value = initializer.call();
+                        value = ((Callable<T>) currentState).call();
                     } catch (Exception e) {
-                        throw new RuntimeException(e);
+                        exception = e;
+                    } catch (Error e) {
+                        // do not memoize errors e.g. StackOverflowError, let the next caller try again
+                        state = currentState;
+                        computation.release();
+                        throw e;
                     }
-                    initializer = null;
+                    state = INITIALIZED;
+                    computation.release();
+                    return;
                 }
             }
+            currentState = state;
         }
-        return value;
     }
 
     public static <T> Lazy<T> of(T value) {
@@ -44,4 +105,61 @@ public final class Lazy<T> implements Supplier<T> {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Running initializer with a stack of parked threads waiting for its result.
+     */
+    private static final class Computation {
+
+        private final Thread thread;
+        @SuppressWarnings("unused") // accessed by WAITERS
+        private volatile Waiter waiters;
+
+        Computation(Thread thread) {
+            this.thread = thread;
+        }
+
+        void await() {
+            if (thread == Thread.currentThread()) {
+                throw new IllegalStateException("recursive lazy value initialization");
+            }
+            Waiter waiter = new Waiter(Thread.currentThread());
+            Waiter currentWaiters = waiters;
+            while (currentWaiters != RELEASED) {
+                waiter.next = currentWaiters;
+                Waiter witness = (Waiter) WAITERS.compareAndExchange(this, currentWaiters, waiter);
+                if (witness == currentWaiters) {
+                    // loop to ignore spurious wake-ups, defer interrupts like a monitor does
+                    boolean interrupted = false;
+                    while (waiters != RELEASED) {
+                        LockSupport.park(this);
+                        interrupted |= Thread.interrupted();
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return;
+                }
+                currentWaiters = witness;
+            }
+        }
+
+        void release() {
+            Waiter waiter = (Waiter) WAITERS.getAndSet(this, RELEASED);
+            while (waiter != null) {
+                LockSupport.unpark(waiter.thread);
+                waiter = waiter.next;
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Thread thread;
+        private Waiter next;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package me.qoomon.gitversioning.commons;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe collection of named timers and counters, e.g. to measure the duration and the amount of work of git operations.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * try (Metrics.Measurement ignored = metrics.start("git.describe")) {
+ *     ...
+ *     metrics.counter("git.describe.commits").increment();
+ * }
+ * }</pre>
+ */
+public final class Metrics {
+
+    // keep insertion order to report timers and counters in order of their first usage
+    private final Map<String, Timer> timers = new LinkedHashMap<>();
+    private final Map<String, Counter> counters = new LinkedHashMap<>();
+
+    public Measurement start(String name) {
+        final Timer timer = timer(name);
+        final long startTime = System.nanoTime();
+        return () -> timer.record(System.nanoTime() - startTime);
+    }
+
+    public Timer timer(String name) {
+        synchronized (timers) {
+            return timers.computeIfAbsent(name, Timer::new);
+        }
+    }
+
+    public List<Timer> getTimers() {
+        synchronized (timers) {
+            return new ArrayList<>(timers.values());
+        }
+    }
+
+    public Counter counter(String name) {
+        synchronized (counters) {
+            return counters.computeIfAbsent(name, Counter::new);
+        }
+    }
+
+    public List<Counter> getCounters() {
+        synchronized (counters) {
+            return new ArrayList<>(counters.values());
+        }
+    }
+
+    public interface Measurement extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static final class Timer {
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+    }
+
+    public static final class Counter {
+
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getValue() {
+            return value.sum();
+        }
+    }
+}
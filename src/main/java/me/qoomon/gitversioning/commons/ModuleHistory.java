@@ -0,0 +1,246 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static me.qoomon.gitversioning.commons.GitUtil.worktreesFix_getCommonRepository;
+
+/**
+ * Commits touching module directories, determined by one history walk for all modules at once.
+ * <p>
+ * A commit touches a module, if it changes any file within the module directory compared to its first parent.
+ * Touching commits are counted within a given depth, e.g. the describe distance.
+ * Beyond that depth the walk continues only until the last touching commit of each module is found.
+ * Commits are walked by descending commit time, so the last touching commit of a module is the most recent one,
+ * that is found first, regardless of the depth.
+ * If merge commits are followed, touching commits are counted by reachability from a base commit instead,
+ * see {@link #walk(ObjectId, ObjectId, Collection, Repository, Metrics)}.
+ * Each visited commit is tested against all modules, that are still counting or unresolved.
+ * Modules are excluded by the changed-path Bloom filter of the commit, if the commit-graph file provides one,
+ * see {@link GitUtil#commitGraph(Repository)}.
+ * Only commits that may touch any module are diffed, and only the paths of those modules.
+ */
+public final class ModuleHistory {
+
+    private final Map<String, Module> modules;
+
+    private ModuleHistory(Map<String, Module> modules) {
+        this.modules = modules;
+    }
+
+    /**
+     * @param revObjectId start commit
+     * @param modulePaths module directories relative to the work tree root, separated by <code>/</code>
+     *                    e.g. <code>services/api</code> or an empty string for the root module
+     * @param firstParent follow only the first parent of merge commits
+     * @param depth       number of commits to count touching commits within e.g. the describe distance, see {@link GitDescription#getDistance()}
+     * @param metrics     counts visited commits as <code>git.module.commits</code>,
+     *                    modules excluded by Bloom filters as <code>git.module.bloom.excluded</code>
+     *                    and diffed commits as <code>git.module.diffs</code>
+     */
+    public static ModuleHistory walk(ObjectId revObjectId, Collection<String> modulePaths, Repository repository,
+                                     boolean firstParent, int depth, Metrics metrics) throws IOException {
+        return walk(revObjectId, null, modulePaths, repository, firstParent, depth, metrics);
+    }
+
+    /**
+     * Counts touching commits reachable from <code>revObjectId</code>, but not from <code>baseObjectId</code>, following all parents of merge commits,
+     * like <code>git rev-list baseObjectId..revObjectId</code> e.g. the describe distance, if merge commits are followed.
+     * Last commits are determined within those commits only, so they may differ from the last commits of
+     * {@link #walk(ObjectId, Collection, Repository, boolean, int, Metrics)}, use it to determine last commits.
+     *
+     * @param baseObjectId commit to exclude along with its ancestors e.g. the tagged commit of the description
+     *                     or null to count all commits reachable from <code>revObjectId</code>
+     * @see #walk(ObjectId, Collection, Repository, boolean, int, Metrics)
+     */
+    public static ModuleHistory walk(ObjectId revObjectId, ObjectId baseObjectId, Collection<String> modulePaths, Repository repository,
+                                     Metrics metrics) throws IOException {
+        return walk(revObjectId, baseObjectId, modulePaths, repository, false, Integer.MAX_VALUE, metrics);
+    }
+
+    private static ModuleHistory walk(ObjectId revObjectId, ObjectId baseObjectId, Collection<String> modulePaths, Repository repository,
+                                      boolean firstParent, int depth, Metrics metrics) throws IOException {
+        Map<String, Module> modules = new LinkedHashMap<>();
+        for (String modulePath : modulePaths) {
+            modules.computeIfAbsent(normalize(modulePath), Module::new);
+        }
+        if (revObjectId == null || modules.isEmpty()) {
+            return new ModuleHistory(modules);
+        }
+
+        Metrics.Counter visitedCommits = metrics.counter("git.module.commits");
+        Metrics.Counter excludedModules = metrics.counter("git.module.bloom.excluded");
+        Metrics.Counter diffedCommits = metrics.counter("git.module.diffs");
+
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        CommitGraphFile commitGraph = GitUtil.commitGraph(commonRepository);
+        List<Module> candidates = new ArrayList<>(modules.size());
+        try (RevWalk walk = new RevWalk(commonRepository);
+             TreeWalk treeWalk = new TreeWalk(commonRepository)) {
+            walk.setRetainBody(false);
+            walk.setFirstParent(firstParent);
+            walk.markStart(walk.parseCommit(revObjectId));
+            if (baseObjectId != null) {
+                walk.markUninteresting(walk.parseCommit(baseObjectId));
+            }
+            treeWalk.setRecursive(true);
+
+            int visited = 0;
+            int unresolved = modules.size();
+            for (RevCommit commit : walk) {
+                boolean counting = visited++ < depth;
+                if (!counting && unresolved == 0) {
+                    break;
+                }
+                visitedCommits.increment();
+
+                candidates.clear();
+                int graphPosition = commitGraph.position(commit);
+                for (Module module : modules.values()) {
+                    if (!counting && module.lastCommit != null) {
+                        continue;
+                    }
+                    if (graphPosition < 0 || module.isRoot() || commitGraph.mayChangePath(graphPosition, module.pathBytes)) {
+                        candidates.add(module);
+                    } else {
+                        excludedModules.increment();
+                    }
+                }
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+
+                diffedCommits.increment();
+                for (Module module : touchedModules(treeWalk, walk, commit, candidates)) {
+                    if (counting) {
+                        module.touchingCommits++;
+                    }
+                    if (module.lastCommit == null) {
+                        module.lastCommit = commit.copy();
+                        module.lastCommitTime = commit.getCommitTime();
+                        unresolved--;
+                    }
+                }
+            }
+        }
+        return new ModuleHistory(modules);
+    }
+
+    /**
+     * @param modulePath module directory relative to the work tree root
+     * @return number of visited commits touching <code>modulePath</code>
+     * @throws IllegalArgumentException if <code>modulePath</code> has not been walked
+     */
+    public int getTouchingCommitCount(String modulePath) {
+        return module(modulePath).touchingCommits;
+    }
+
+    /**
+     * @param modulePath module directory relative to the work tree root
+     * @return most recent commit touching <code>modulePath</code> or null, if there is none
+     * @throws IllegalArgumentException if <code>modulePath</code> has not been walked
+     */
+    public ObjectId getLastCommit(String modulePath) {
+        return module(modulePath).lastCommit;
+    }
+
+    /**
+     * @param modulePath module directory relative to the work tree root
+     * @return commit time of {@link #getLastCommit(String)} or null, if there is none
+     * @throws IllegalArgumentException if <code>modulePath</code> has not been walked
+     */
+    public ZonedDateTime getLastCommitTimestamp(String modulePath) {
+        Module module = module(modulePath);
+        return module.lastCommit != null
+                ? ZonedDateTime.ofInstant(Instant.ofEpochSecond(module.lastCommitTime), UTC)
+                : null;
+    }
+
+    private Module module(String modulePath) {
+        Module module = modules.get(normalize(modulePath));
+        if (module == null) {
+            throw new IllegalArgumentException("unknown module path " + modulePath);
+        }
+        return module;
+    }
+
+    /**
+     * @return modules of <code>candidates</code> with changed files compared to the first parent of <code>commit</code>
+     */
+    private static List<Module> touchedModules(TreeWalk treeWalk, RevWalk walk, RevCommit commit, List<Module> candidates) throws IOException {
+        treeWalk.reset();
+        if (commit.getParentCount() > 0) {
+            treeWalk.addTree(walk.parseCommit(commit.getParent(0)).getTree());
+        } else {
+            treeWalk.addTree(new EmptyTreeIterator());
+        }
+        treeWalk.addTree(commit.getTree());
+
+        boolean rootCandidate = candidates.stream().anyMatch(Module::isRoot);
+        treeWalk.setFilter(rootCandidate
+                ? TreeFilter.ANY_DIFF
+                : AndTreeFilter.create(PathFilterGroup.createFromStrings(candidates.stream().map(it -> it.path).toArray(String[]::new)), TreeFilter.ANY_DIFF));
+
+        List<Module> touched = new ArrayList<>(candidates.size());
+        List<Module> pending = new ArrayList<>(candidates);
+        while (!pending.isEmpty() && treeWalk.next()) {
+            String changedPath = treeWalk.getPathString();
+            pending.removeIf(module -> {
+                if (module.contains(changedPath)) {
+                    touched.add(module);
+                    return true;
+                }
+                return false;
+            });
+        }
+        return touched;
+    }
+
+    private static String normalize(String modulePath) {
+        String path = modulePath.replace('\\', '/');
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path.equals(".") ? "" : path;
+    }
+
+    private static final class Module {
+
+        private final String path;
+        private final byte[] pathBytes;
+        private int touchingCommits;
+        private ObjectId lastCommit;
+        private int lastCommitTime;
+
+        Module(String path) {
+            this.path = path;
+            this.pathBytes = path.getBytes(UTF_8);
+        }
+
+        boolean isRoot() {
+            return path.isEmpty();
+        }
+
+        boolean contains(String filePath) {
+            return isRoot() || filePath.startsWith(path) && (filePath.length() == path.length() || filePath.charAt(path.length()) == '/');
+        }
+    }
+}
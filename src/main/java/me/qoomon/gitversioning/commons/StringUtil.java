@@ -10,10 +10,12 @@ import java.util.regex.Pattern;
 
 public final class StringUtil {
 
+    // key may be qualified by a name e.g. ${describe:api.tag}, as long as the name does not start like a modifier
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\{(?<key>[^}:]+(?::[^}:+-][^}:]*)?)(?<modifier>:?[-+])?(?<value>[^}]*)?}");
+
     public static String substituteText(String text, Map<String, Supplier<String>> replacements) {
         StringBuffer result = new StringBuffer();
-        Pattern placeholderPattern = Pattern.compile("\\$\\{(?<key>[^}:]+)(?<modifier>:?[-+])?(?<value>[^}]*)?}");
-        Matcher placeholderMatcher = placeholderPattern.matcher(text);
+        Matcher placeholderMatcher = PLACEHOLDER_PATTERN.matcher(text);
         while (placeholderMatcher.find()) {
             String placeholderKey = placeholderMatcher.group("key");
             Supplier<String> replacementSupplier = replacements.get(placeholderKey);
@@ -43,6 +45,19 @@ public final class StringUtil {
         return result.toString();
     }
 
+    /**
+     * @param text text with placeholders e.g. <code>${describe.tag}-${dirty}</code>
+     * @return placeholder keys of <code>text</code> e.g. <code>describe.tag</code> and <code>dirty</code>
+     */
+    public static Set<String> placeholderKeys(String text) {
+        Set<String> keys = new HashSet<>();
+        Matcher placeholderMatcher = PLACEHOLDER_PATTERN.matcher(text);
+        while (placeholderMatcher.find()) {
+            keys.add(placeholderMatcher.group("key"));
+        }
+        return keys;
+    }
+
     /**
      * @param pattern pattern
      * @param text  to parse
@@ -3,6 +3,8 @@ package me.qoomon.gitversioning.commons;
 import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevFlag;
 import org.eclipse.jgit.revwalk.RevObject;
 import org.eclipse.jgit.revwalk.RevTag;
 import org.eclipse.jgit.revwalk.RevWalk;
@@ -14,15 +16,27 @@ import java.util.concurrent.Callable;
 public class TagComparator implements Comparator<Ref> {
 
     private final RevWalk revWalk;
+    // marks objects counted as parsed already, RevWalk parses each object only once
+    private final RevFlag parsed;
+    private final Metrics.Counter parsedObjects;
 
     public TagComparator(Repository repository) {
+        this(repository, new Metrics());
+    }
+
+    /**
+     * @param metrics counts parsed tag objects as <code>git.tags.parsed</code>
+     */
+    public TagComparator(Repository repository, Metrics metrics) {
         this.revWalk = new RevWalk(repository);
+        this.parsed = revWalk.newFlag("parsed");
+        this.parsedObjects = metrics.counter("git.tags.parsed");
     }
 
     @Override
     public int compare(Ref ref1, Ref ref2) {
-        RevObject rev1 = tryUnchecked(() -> revWalk.parseAny(ref1.getObjectId()));
-        RevObject rev2 = tryUnchecked(() -> revWalk.parseAny(ref2.getObjectId()));
+        RevObject rev1 = parse(ref1.getObjectId());
+        RevObject rev2 = parse(ref2.getObjectId());
 
         // both tags are annotated tags
         if (rev1 instanceof RevTag && rev2 instanceof RevTag) {
@@ -43,6 +57,15 @@ public class TagComparator implements Comparator<Ref> {
         return compareTagVersion(ref1, ref2);
     }
 
+    private RevObject parse(ObjectId objectId) {
+        RevObject rev = tryUnchecked(() -> revWalk.parseAny(objectId));
+        if (!rev.has(parsed)) {
+            rev.add(parsed);
+            parsedObjects.increment();
+        }
+        return rev;
+    }
+
     private static <R> R tryUnchecked(Callable<R> block) {
         try {
             return block.call();
@@ -0,0 +1,146 @@
+package me.qoomon.maven.gitversioning;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Command options resolved once per session.
+ * <p>
+ * Each option is looked up in following order
+ * <ol>
+ * <li>maven user properties e.g. <code>-Dversioning.disable</code></li>
+ * <li>environment variables e.g. <code>VERSIONING_DISABLE</code>, see {@link #environmentVariableName(String)}</li>
+ * <li>system properties</li>
+ * </ol>
+ */
+final class CommandOptions {
+
+    enum Source {
+        USER_PROPERTY("user property"),
+        ENVIRONMENT_VARIABLE("environment variable"),
+        SYSTEM_PROPERTY("system property");
+
+        private final String description;
+
+        Source(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    static final class Option {
+
+        private final String name;
+        private final String environmentVariableName;
+        private final String value;
+        private final Source source;
+
+        private Option(String name, String environmentVariableName, String value, Source source) {
+            this.name = name;
+            this.environmentVariableName = environmentVariableName;
+            this.value = value;
+            this.source = source;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getEnvironmentVariableName() {
+            return environmentVariableName;
+        }
+
+        /**
+         * @return option value or null if option is not set
+         */
+        String getValue() {
+            return value;
+        }
+
+        /**
+         * @return source of option value or null if option is not set
+         */
+        Source getSource() {
+            return source;
+        }
+
+        @Override
+        public String toString() {
+            return source != null
+                    ? name + ": " + value + " (" + source + (source == Source.ENVIRONMENT_VARIABLE ? " " + environmentVariableName : "") + ")"
+                    : name + ": -";
+        }
+    }
+
+    private final Map<String, Option> options;
+
+    private CommandOptions(Map<String, Option> options) {
+        this.options = options;
+    }
+
+    /**
+     * @param names            option names e.g. <code>versioning.disable</code>
+     * @param userProperties   maven user properties
+     * @param environment      environment variables
+     * @param systemProperties system properties
+     * @return resolved options
+     */
+    static CommandOptions resolve(Collection<String> names, Properties userProperties, Map<String, String> environment, Properties systemProperties) {
+        Map<String, Option> options = new LinkedHashMap<>();
+        for (String name : names) {
+            String environmentVariableName = environmentVariableName(name);
+            Option option;
+            if (userProperties.getProperty(name) != null) {
+                option = new Option(name, environmentVariableName, userProperties.getProperty(name), Source.USER_PROPERTY);
+            } else if (environment.get(environmentVariableName) != null) {
+                option = new Option(name, environmentVariableName, environment.get(environmentVariableName), Source.ENVIRONMENT_VARIABLE);
+            } else if (systemProperties.getProperty(name) != null) {
+                option = new Option(name, environmentVariableName, systemProperties.getProperty(name), Source.SYSTEM_PROPERTY);
+            } else {
+                option = new Option(name, environmentVariableName, null, null);
+            }
+            options.put(name, option);
+        }
+        return new CommandOptions(options);
+    }
+
+    /**
+     * @param name option name
+     * @return option value or null if option is not set
+     * @throws IllegalArgumentException if option has not been resolved
+     */
+    String get(String name) {
+        Option option = options.get(name);
+        if (option == null) {
+            throw new IllegalArgumentException("unknown command option " + name);
+        }
+        return option.getValue();
+    }
+
+    /**
+     * @return all resolved options in order of resolution
+     */
+    List<Option> getOptions() {
+        return new ArrayList<>(options.values());
+    }
+
+    /**
+     * @param name option name e.g. <code>versioning.updatePom</code> or <code>git.ref</code>
+     * @return environment variable name e.g. <code>VERSIONING_UPDATE_POM</code> or <code>VERSIONING_GIT_REF</code>
+     */
+    static String environmentVariableName(String name) {
+        String plainName = name.replaceFirst("^versioning\\.", "");
+        return "VERSIONING_"
+                + String.join("_", plainName.split("(?=\\p{Lu})"))
+                .replaceAll("\\.", "_")
+                .toUpperCase();
+    }
+}
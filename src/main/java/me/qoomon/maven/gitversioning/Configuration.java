@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
@@ -36,11 +37,10 @@ public class Configuration {
     @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
     public String projectVersionPattern = null;
 
+    private final CompiledPattern compiledProjectVersionPattern = new CompiledPattern();
+
     public Pattern projectVersionPattern() {
-        if(projectVersionPattern == null) {
-            return null;
-        }
-        return Pattern.compile(projectVersionPattern);
+        return compiledProjectVersionPattern.get(projectVersionPattern);
     }
 
     @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
@@ -48,13 +48,18 @@ public class Configuration {
 
     public Boolean describeTagFirstParent = true;
 
+    public Integer describeMaxDepth = null;
+
+    private final CompiledPattern compiledDescribeTagPattern = new CompiledPattern();
+
     public Pattern describeTagPattern() {
-        if(describeTagPattern == null) {
-            return null;
-        }
-        return Pattern.compile(describeTagPattern);
+        return compiledDescribeTagPattern.get(describeTagPattern);
     }
 
+    @JsonInclude(NON_EMPTY)
+    @JsonDeserialize(contentUsing = IgnoreWhitespaceDeserializer.class)
+    public Map<String, String> describeTagPatterns = new HashMap<>();
+
     public Boolean updatePom = false;
 
     public RefPatchDescriptionList refs = new RefPatchDescriptionList();
@@ -72,11 +77,10 @@ public class Configuration {
         @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
         public String describeTagPattern;
 
+        private final CompiledPattern compiledDescribeTagPattern = new CompiledPattern();
+
         public Pattern describeTagPattern() {
-            if(describeTagPattern == null) {
-                return null;
-            }
-            return Pattern.compile(describeTagPattern);
+            return compiledDescribeTagPattern.get(describeTagPattern);
         }
 
         @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
@@ -95,6 +99,21 @@ public class Configuration {
         public Boolean updatePom;
 
         public Boolean describeTagFirstParent;
+
+        public Integer describeMaxDepth;
+
+        @JsonInclude(NON_EMPTY)
+        @JsonDeserialize(contentUsing = IgnoreWhitespaceDeserializer.class)
+        public Map<String, String> describeTagPatterns = new HashMap<>();
+
+        private final Map<String, CompiledPattern> compiledDescribeTagPatterns = new ConcurrentHashMap<>();
+
+        public Map<String, Pattern> describeTagPatterns() {
+            Map<String, Pattern> patterns = new HashMap<>();
+            describeTagPatterns.forEach((name, pattern) -> patterns.put(name,
+                    compiledDescribeTagPatterns.computeIfAbsent(name, key -> new CompiledPattern()).get(pattern)));
+            return patterns;
+        }
     }
 
     @JsonInclude(NON_NULL)
@@ -106,11 +125,10 @@ public class Configuration {
         @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
         public String pattern;
 
+        private final CompiledPattern compiledPattern = new CompiledPattern();
+
         public Pattern pattern() {
-            if(pattern == null) {
-                return null;
-            }
-            return Pattern.compile(pattern);
+            return compiledPattern.get(pattern);
         }
 
         public RefPatchDescription() {
@@ -122,6 +140,8 @@ public class Configuration {
             this.describeTagPattern = description.describeTagPattern;
             this.updatePom = description.updatePom;
             this.describeTagFirstParent = description.describeTagFirstParent;
+            this.describeMaxDepth = description.describeMaxDepth;
+            this.describeTagPatterns = new HashMap<>(description.describeTagPatterns);
             this.version = description.version;
             this.properties = new HashMap<>(description.properties);
         }
@@ -157,10 +177,35 @@ public class Configuration {
     }
 
 
+    /**
+     * Memoizes the compiled pattern of a regex field,
+     * because configurations are cached and pattern accessors are called for every ref and tag.
+     */
+    private static final class CompiledPattern {
+
+        private volatile Pattern pattern;
+
+        Pattern get(String regex) {
+            if (regex == null) {
+                return null;
+            }
+            Pattern pattern = this.pattern;
+            // regex fields are public and may be changed after first compilation
+            if (pattern == null || !pattern.pattern().equals(regex)) {
+                pattern = Pattern.compile(regex);
+                this.pattern = pattern;
+            }
+            return pattern;
+        }
+    }
+
     public static class IgnoreWhitespaceDeserializer extends JsonDeserializer<Object> {
+
+        private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
         @Override
         public Object deserialize(JsonParser jp, DeserializationContext context) throws IOException {
-            return jp.getText().replaceAll("\\s+", "");
+            return WHITESPACE.matcher(jp.getText()).replaceAll("");
         }
     }
 }
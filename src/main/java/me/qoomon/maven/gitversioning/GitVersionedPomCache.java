@@ -0,0 +1,161 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keeps track of the inputs a git versioned pom file was generated from,
+ * to skip regeneration if neither the original pom nor the computed versions and properties have changed.
+ * <p>
+ * The state is stored within the project build directory, see {@link #stateFile(Model)}.
+ */
+final class GitVersionedPomCache {
+
+    private static final String STATE_FILE_NAME = "git-versioned-pom.properties";
+
+    private static final String KEY_DIGEST = "digest";
+    private static final String KEY_SIZE = "size";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+
+    private GitVersionedPomCache() {
+    }
+
+    /**
+     * @param projectModel project model
+     * @return cache state file location e.g. target/maven-status/maven-git-versioning-extension/git-versioned-pom.properties
+     */
+    static File stateFile(Model projectModel) {
+        String buildDirectory = projectModel.getBuild() != null ? projectModel.getBuild().getDirectory() : null;
+        // raw models are not interpolated yet, so fallback to default build directory
+        if (buildDirectory == null || buildDirectory.contains("${")) {
+            buildDirectory = "target";
+        }
+        File buildDirectoryFile = new File(buildDirectory);
+        if (!buildDirectoryFile.isAbsolute()) {
+            buildDirectoryFile = new File(projectModel.getProjectDirectory(), buildDirectory);
+        }
+        return new File(new File(new File(buildDirectoryFile, "maven-status"), BuildProperties.projectArtifactId()), STATE_FILE_NAME);
+    }
+
+    /**
+     * @param pom          original pom file content
+     * @param projectModel updated project model
+     * @return digest of original pom file content and all versions and property values of <code>projectModel</code>
+     */
+    static String digest(byte[] pom, Model projectModel) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(pom);
+
+        if (projectModel.getParent() != null) {
+            update(digest, "parent", projectModel.getParent().getVersion());
+        }
+        update(digest, "version", projectModel.getVersion());
+        update(digest, projectModel, projectModel.getBuild(), projectModel.getReporting());
+        for (Profile profile : projectModel.getProfiles()) {
+            update(digest, "profile", profile.getId());
+            update(digest, profile, profile.getBuild(), profile.getReporting());
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static void update(MessageDigest digest, ModelBase model, BuildBase build, Reporting reporting) {
+        // sort properties to get a stable digest
+        new TreeMap<>(model.getProperties()).forEach((name, value) -> update(digest, (String) name, (String) value));
+
+        updateDependencies(digest, model.getDependencies());
+        if (model.getDependencyManagement() != null) {
+            updateDependencies(digest, model.getDependencyManagement().getDependencies());
+        }
+        if (build != null) {
+            updatePlugins(digest, build.getPlugins());
+            if (build.getPluginManagement() != null) {
+                updatePlugins(digest, build.getPluginManagement().getPlugins());
+            }
+        }
+        if (reporting != null) {
+            for (ReportPlugin plugin : reporting.getPlugins()) {
+                update(digest, plugin.getKey(), plugin.getVersion());
+            }
+        }
+    }
+
+    private static void updateDependencies(MessageDigest digest, List<Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            update(digest, dependency.getManagementKey(), dependency.getVersion());
+        }
+    }
+
+    private static void updatePlugins(MessageDigest digest, List<Plugin> plugins) {
+        for (Plugin plugin : plugins) {
+            update(digest, plugin.getKey(), plugin.getVersion());
+            updateDependencies(digest, plugin.getDependencies());
+        }
+    }
+
+    private static void update(MessageDigest digest, String key, String value) {
+        digest.update(key.getBytes(UTF_8));
+        digest.update((byte) 0);
+        if (value != null) {
+            digest.update(value.getBytes(UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    /**
+     * @param stateFile           cache state file
+     * @param digest              current input digest, see {@link #digest(byte[], Model)}
+     * @param gitVersionedPomFile git versioned pom file
+     * @return true if <code>gitVersionedPomFile</code> has been generated from the same inputs and was not modified since
+     */
+    static boolean isUpToDate(File stateFile, String digest, File gitVersionedPomFile) {
+        if (!stateFile.isFile() || !gitVersionedPomFile.isFile()) {
+            return false;
+        }
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(stateFile.toPath(), UTF_8)) {
+            state.load(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+        return digest.equals(state.getProperty(KEY_DIGEST))
+                && String.valueOf(gitVersionedPomFile.length()).equals(state.getProperty(KEY_SIZE))
+                && String.valueOf(gitVersionedPomFile.lastModified()).equals(state.getProperty(KEY_LAST_MODIFIED));
+    }
+
+    /**
+     * @param stateFile           cache state file
+     * @param digest              input digest <code>gitVersionedPomFile</code> has been generated from
+     * @param gitVersionedPomFile git versioned pom file
+     * @throws IOException if state file can not be written
+     */
+    static void update(File stateFile, String digest, File gitVersionedPomFile) throws IOException {
+        Properties state = new Properties();
+        state.setProperty(KEY_DIGEST, digest);
+        state.setProperty(KEY_SIZE, String.valueOf(gitVersionedPomFile.length()));
+        state.setProperty(KEY_LAST_MODIFIED, String.valueOf(gitVersionedPomFile.lastModified()));
+
+        Files.createDirectories(stateFile.getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(stateFile.toPath(), UTF_8)) {
+            state.store(writer, null);
+        }
+    }
+}
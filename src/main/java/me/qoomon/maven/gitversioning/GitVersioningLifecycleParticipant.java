@@ -0,0 +1,34 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.building.ModelProcessor;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.List;
+
+/**
+ * Notifies {@link GitVersioningModelProcessor} about the end of the maven session.
+ */
+@Named
+@Singleton
+public class GitVersioningLifecycleParticipant extends AbstractMavenLifecycleParticipant {
+
+    private final List<ModelProcessor> modelProcessors;
+
+    @Inject
+    public GitVersioningLifecycleParticipant(List<ModelProcessor> modelProcessors) {
+        // model processor can't be injected directly, because it is bound as ModelProcessor implementation only
+        this.modelProcessors = modelProcessors;
+    }
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        modelProcessors.stream()
+                .filter(GitVersioningModelProcessor.class::isInstance)
+                .map(GitVersioningModelProcessor.class::cast)
+                .forEach(modelProcessor -> modelProcessor.sessionEnd(session));
+    }
+}
@@ -1,13 +1,15 @@
 package me.qoomon.maven.gitversioning;
 
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.google.inject.Key;
 import com.google.inject.OutOfScopeException;
-import de.pdark.decentxml.Document;
-import de.pdark.decentxml.Element;
+import me.qoomon.gitversioning.commons.FileFingerprint;
+import me.qoomon.gitversioning.commons.GitCache;
 import me.qoomon.gitversioning.commons.GitDescription;
 import me.qoomon.gitversioning.commons.GitSituation;
 import me.qoomon.gitversioning.commons.Lazy;
+import me.qoomon.gitversioning.commons.Metrics;
 import me.qoomon.maven.gitversioning.Configuration.PatchDescription;
 import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
 import org.apache.maven.building.Source;
@@ -17,7 +19,6 @@ import org.apache.maven.model.building.ModelProcessor;
 import org.apache.maven.session.scope.internal.SessionScope;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
@@ -31,6 +32,9 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
@@ -39,6 +43,7 @@ import java.util.regex.Pattern;
 import static com.fasterxml.jackson.databind.MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS;
 import static java.lang.Boolean.parseBoolean;
 import static java.lang.Math.*;
+import static java.nio.file.Files.readAllBytes;
 import static java.time.format.DateTimeFormatter.ISO_INSTANT;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
@@ -72,9 +77,25 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     private static final String OPTION_NAME_DISABLE = "versioning.disable";
     private static final String OPTION_UPDATE_POM = "versioning.updatePom";
     private static final String OPTION_CONFIG_FILE_NAME = "versioning.configFile";
+    private static final String OPTION_TIMINGS = "versioning.timings";
+    private static final String OPTION_PREFETCH = "versioning.prefetch";
+    private static final String OPTION_WRITE_COMMIT_GRAPH = "versioning.writeCommitGraph";
+
+    private static final List<String> OPTION_NAMES = List.of(
+            OPTION_NAME_GIT_REF, OPTION_NAME_GIT_TAG, OPTION_NAME_GIT_BRANCH,
+            OPTION_NAME_DISABLE, OPTION_UPDATE_POM, OPTION_CONFIG_FILE_NAME, OPTION_TIMINGS, OPTION_PREFETCH, OPTION_WRITE_COMMIT_GRAPH);
 
     static final String GIT_VERSIONING_POM_NAME = ".git-versioned-pom.xml";
 
+    // JVM-wide cache, reused by following sessions within the same JVM e.g. maven daemon (mvnd)
+    private static final Map<File, CachedConfiguration> CONFIGURATION_CACHE = new ConcurrentHashMap<>();
+
+    // building a mapper and its deserializers is expensive, so it is built once per JVM
+    private static final Lazy<ObjectReader> CONFIGURATION_READER = Lazy.by(() -> XmlMapper.builder()
+            .enable(ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .build()
+            .readerFor(Configuration.class));
+
     final private Logger logger = getLogger(GitVersioningModelProcessor.class);
 
     // gets injected by setter, see below
@@ -94,26 +115,39 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     @Inject
     private SessionScope sessionScope;
 
-    private boolean initialized = false;
+    // processModel may be called concurrently e.g. mvn -T 4,
+    // all following fields are written by init() only and published by this volatile flag
+    private volatile boolean initialized = false;
 
     private Configuration config;
+    private RefRuleMatcher refRuleMatcher;
 
     // --- following fields will be initialized by init() method -------------------------------------------------------
     private MavenSession mavenSession; // can't be injected, cause it's not available before model read
+    private CommandOptions commandOptions;
     private File mvnDirectory;
     private GitSituation gitSituation;
 
     private boolean disabled = false;
+    private boolean timings = false;
+    private boolean writeCommitGraph = false;
+    private ExecutorService executor;
+    private PlaceholderRoots placeholderRoots;
     private GitVersionDetails gitVersionDetails;
     boolean updatePom = false;
 
     private Map<String, Supplier<String>> globalFormatPlaceholderMap;
     private Set<GAV> relatedProjects;
+    // project id -> module path
+    private Map<String, String> relatedProjectModulePaths;
 
 
     // ---- other fields -----------------------------------------------------------------------------------------------
 
-    private final Map<File, Model> sessionModelCache = new HashMap<>();
+    private Metrics metrics = new Metrics();
+
+    // lazy values ensure each project model is processed once, even if read concurrently
+    private final Map<File, Lazy<ProcessedModel>> sessionModelCache = new ConcurrentHashMap<>();
 
     @Override
     public File locatePom(File projectDirectory) {
@@ -122,20 +156,24 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     @Override
     public Model read(File input, Map<String, ?> options) throws IOException {
-        // clone model before return to prevent concurrency issues
-        return processModel(delegatedModelProcessor.read(input, options), options).clone();
+        return copyIfShared(delegatedModelProcessor.read(input, options), options);
     }
 
     @Override
     public Model read(Reader input, Map<String, ?> options) throws IOException {
-        // clone model before return to prevent concurrency issues
-        return processModel(delegatedModelProcessor.read(input, options), options).clone();
+        return copyIfShared(delegatedModelProcessor.read(input, options), options);
     }
 
     @Override
     public Model read(InputStream input, Map<String, ?> options) throws IOException {
-        // clone model before return to prevent concurrency issues
-        return processModel(delegatedModelProcessor.read(input, options), options).clone();
+        return copyIfShared(delegatedModelProcessor.read(input, options), options);
+    }
+
+    private Model copyIfShared(Model projectModel, Map<String, ?> options) throws IOException {
+        final Model processedProjectModel = processModel(projectModel, options);
+        // clone shared cached model before return to prevent concurrency issues,
+        // the read model itself is exclusively owned by the caller
+        return processedProjectModel == projectModel ? projectModel : processedProjectModel.clone();
     }
 
 
@@ -169,6 +207,19 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             return;
         }
 
+        commandOptions = CommandOptions.resolve(OPTION_NAMES,
+                mavenSession.getUserProperties(), System.getenv(), System.getProperties());
+        if (logger.isDebugEnabled()) {
+            logger.debug("command options:");
+            commandOptions.getOptions().forEach(option -> logger.debug("  {}", option));
+        }
+
+        final String commandOptionTimings = getCommandOption(OPTION_TIMINGS);
+        timings = commandOptionTimings != null && (commandOptionTimings.isEmpty() || parseBoolean(commandOptionTimings));
+
+        final String commandOptionWriteCommitGraph = getCommandOption(OPTION_WRITE_COMMIT_GRAPH);
+        writeCommitGraph = commandOptionWriteCommitGraph != null && (commandOptionWriteCommitGraph.isEmpty() || parseBoolean(commandOptionWriteCommitGraph));
+
         logger.debug("pom file: {}", pomFile);
         mvnDirectory = findMvnDirectory(pomFile);
         logger.debug(".mvn directory: {}", mvnDirectory);
@@ -180,7 +231,11 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
         final File configFile = new File(mvnDirectory, configFileName);
         logger.debug("read config from {}", configFile);
-        config = readConfig(configFile);
+        try (Metrics.Measurement ignored = metrics.start("init.config")) {
+            final CachedConfiguration cachedConfig = readConfig(configFile);
+            config = cachedConfig.config;
+            refRuleMatcher = cachedConfig.refRuleMatcher;
+        }
 
         // check if extension is disabled by command option
         final String commandOptionDisable = getCommandOption(OPTION_NAME_DISABLE);
@@ -200,7 +255,9 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         }
 
         // determine git situation
-        gitSituation = getGitSituation(pomFile);
+        try (Metrics.Measurement ignored = metrics.start("init.gitSituation")) {
+            gitSituation = getGitSituation(pomFile);
+        }
         if (gitSituation == null) {
             logger.warn("skip - project is not part of a git repository");
             disabled = true;
@@ -218,7 +275,9 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         }
 
         // determine git version details
-        gitVersionDetails = getGitVersionDetails(gitSituation, config);
+        try (Metrics.Measurement ignored = metrics.start("init.gitVersionDetails")) {
+            gitVersionDetails = getGitVersionDetails(gitSituation, config, refRuleMatcher);
+        }
         if (gitVersionDetails == null) {
             logger.warn("skip - no matching <ref> configuration and no <rev> configuration defined");
             logger.warn("git refs:");
@@ -241,6 +300,15 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             logger.info("  describeTagFirstParent: {}", patchDescription.describeTagFirstParent);
             gitSituation.setFirstParent(patchDescription.describeTagFirstParent);
         }
+        if (patchDescription.describeMaxDepth != null) {
+            logger.info("  describeMaxDepth: {}", patchDescription.describeMaxDepth);
+            gitSituation.setDescribeMaxDepth(patchDescription.describeMaxDepth);
+        }
+        if (!patchDescription.describeTagPatterns.isEmpty()) {
+            logger.info("  describeTagPatterns: ");
+            patchDescription.describeTagPatterns.forEach((name, pattern) -> logger.info("    {} - {}", name, pattern));
+            gitSituation.setDescribeTagPatterns(patchDescription.describeTagPatterns());
+        }
         if (patchDescription.version != null) {
             logger.info("  version: {}", patchDescription.version);
         }
@@ -249,14 +317,36 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             patchDescription.properties.forEach((key, value) -> logger.info("    {} - {}", key, value));
         }
 
-        globalFormatPlaceholderMap = generateGlobalFormatPlaceholderMap(gitSituation, gitVersionDetails, mavenSession);
+        // determine related projects
+        try (Metrics.Measurement ignored = metrics.start("init.relatedProjects")) {
+            relatedProjectModulePaths = new HashMap<>();
+            relatedProjects = determineRelatedProjects(projectModel, relatedProjectModulePaths);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(buffer().strong("related projects:").toString());
+            relatedProjects.forEach(gav -> logger.debug("  {}", gav));
+        }
+        gitSituation.setModulePaths(relatedProjectModulePaths.values());
+
+        // git situation must not be changed from here on
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "git-versioning-placeholder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        placeholderRoots = new PlaceholderRoots(executor);
+        globalFormatPlaceholderMap = generateGlobalFormatPlaceholderMap(gitSituation, gitVersionDetails, mavenSession, placeholderRoots);
+        final String commandOptionPrefetch = getCommandOption(OPTION_PREFETCH);
+        if (commandOptionPrefetch != null && (commandOptionPrefetch.isEmpty() || parseBoolean(commandOptionPrefetch))) {
+            prefetchGitSituation(patchDescription);
+        }
 
         if (!patchDescription.userProperties.isEmpty()) {
             logger.info("  userProperties: ");
-            String projectVersion = GAV.of(projectModel).getVersion();
+            GAV projectGAV = GAV.of(projectModel);
             patchDescription.userProperties.forEach((key, value) -> {
                 logger.info("    {} - {}", key, value);
-                mavenSession.getUserProperties().put(key, getGitPropertyValue(value, "", projectVersion));
+                mavenSession.getUserProperties().put(key, getGitPropertyValue(value, "", projectGAV));
             });
         }
         updatePom = getUpdatePomOption(patchDescription);
@@ -264,18 +354,109 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             logger.info("  updatePom: {}", updatePom);
         }
 
-        // determine related projects
-        relatedProjects = determineRelatedProjects(projectModel);
-        if (logger.isDebugEnabled()) {
-            logger.debug(buffer().strong("related projects:").toString());
-            relatedProjects.forEach(gav -> logger.debug("  {}", gav));
+        logger.info("");
+    }
+
+    /**
+     * Gets called by {@link GitVersioningLifecycleParticipant} at the end of the maven session.
+     *
+     * @param session maven session
+     */
+    void sessionEnd(MavenSession session) {
+        if (!initialized) {
+            return;
+        }
+        try {
+            if (writeCommitGraph && gitSituation != null) {
+                writeCommitGraph();
+            }
+            if (timings) {
+                logTimings();
+                writeTimingsReport(session);
+            } else if (logger.isDebugEnabled()) {
+                logCounters();
+            }
+        } finally {
+            reset();
         }
+    }
 
+    /**
+     * Writes the commit-graph file at session end, so versioning of this build is not delayed,
+     * but following builds within the same workspace benefit from it.
+     */
+    private void writeCommitGraph() {
+        try {
+            if (gitSituation.writeCommitGraph()) {
+                logger.info("git versioning commit-graph written");
+            } else {
+                logger.debug("git versioning commit-graph not written, it is up to date or locked by another process");
+            }
+        } catch (IOException e) {
+            logger.warn("can not write git versioning commit-graph", e);
+        }
+    }
+
+    private void writeTimingsReport(MavenSession session) {
+        File reportFile = MetricsReport.reportFile(session);
+        try {
+            MetricsReport.writeJson(metrics, reportFile);
+            logger.info("git versioning timings report: {}", reportFile);
+        } catch (IOException e) {
+            logger.warn("can not write git versioning timings report {}", reportFile, e);
+        }
+    }
+
+    /**
+     * Resets all session state,
+     * because this singleton outlives the session within long-living JVMs e.g. maven daemon (mvnd) or embedded maven.
+     */
+    private synchronized void reset() {
+        initialized = false;
+        config = null;
+        refRuleMatcher = null;
+        mavenSession = null;
+        commandOptions = null;
+        mvnDirectory = null;
+        gitSituation = null;
+        disabled = false;
+        timings = false;
+        writeCommitGraph = false;
+        if (executor != null) {
+            // let running prefetches finish, threads are daemon threads anyway
+            executor.shutdown();
+            executor = null;
+        }
+        placeholderRoots = null;
+        gitVersionDetails = null;
+        updatePom = false;
+        globalFormatPlaceholderMap = null;
+        relatedProjects = null;
+        relatedProjectModulePaths = null;
+        metrics = new Metrics();
+        sessionModelCache.clear();
+    }
+
+    private void logTimings() {
+        logger.info(buffer().strong("git versioning timings:").toString());
+        MetricsReport.table(metrics).forEach(line -> logger.info("  {}", line));
         logger.info("");
     }
 
+    private void logCounters() {
+        logger.debug(buffer().strong("git versioning counters:").toString());
+        MetricsReport.counterTable(metrics).forEach(line -> logger.debug("  {}", line));
+    }
+
     // ---- model processing -------------------------------------------------------------------------------------------
 
+    /**
+     * @param projectModel project model
+     * @param options      model processor options
+     * @return <code>projectModel</code> itself, if it has not been processed by another read before,
+     * otherwise the shared processed project model, that must not be modified
+     * @throws IOException if git versioned pom file can not be written
+     */
     public Model processModel(Model projectModel, Map<String, ?> options) throws IOException {
         // set model pom file
         final Source pomSource = (Source) options.get(ModelProcessor.SOURCE);
@@ -287,8 +468,33 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         }
 
         if (!initialized) {
-            init(projectModel);
-            initialized = true;
+            synchronized (this) {
+                if (!initialized) {
+                    VersioningEvents.Init event = new VersioningEvents.Init();
+                    event.begin();
+                    try (Metrics.Measurement ignored = metrics.start("init")) {
+                        init(projectModel);
+                    }
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.projectPom = projectModel.getPomFile().getPath();
+                        event.disabled = disabled;
+                        if (gitVersionDetails != null) {
+                            event.ref = gitVersionDetails.getRefName();
+                        }
+                        if (relatedProjects != null) {
+                            event.relatedProjectCount = relatedProjects.size();
+                        }
+                        event.commit();
+                    }
+                    initialized = true;
+                    if (timings) {
+                        logTimings();
+                    } else if (logger.isDebugEnabled()) {
+                        logCounters();
+                    }
+                }
+            }
         }
 
         if (disabled) {
@@ -310,23 +516,54 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
         File canonicalProjectPomFile = projectModel.getPomFile().getCanonicalFile();
 
-        // return cached calculated project model if present
-        Model cachedProjectModel = sessionModelCache.get(canonicalProjectPomFile);
-        if (cachedProjectModel != null) {
-            return cachedProjectModel;
-        }
+        VersioningEvents.ProcessModel event = new VersioningEvents.ProcessModel();
+        event.begin();
+        final boolean cacheHit = event.isEnabled() && sessionModelCache.containsKey(canonicalProjectPomFile);
 
-        // add current project model to session project models
-        sessionModelCache.put(canonicalProjectPomFile, projectModel);
+        // return cached calculated project model if present,
+        // concurrent reads of the same project model wait for the first one to be processed
+        final Lazy<ProcessedModel> processedProjectModel = sessionModelCache.computeIfAbsent(canonicalProjectPomFile,
+                pomFile -> Lazy.by(() -> {
+                    try (Metrics.Measurement ignored = metrics.start("model")) {
+                        return new ProcessedModel(processProjectModel(projectModel, projectGAV));
+                    }
+                }));
+        try {
+            Model processedModel = processedProjectModel.get().get(projectModel);
+            event.end();
+            if (event.shouldCommit()) {
+                event.modulePath = modulePath(projectModel);
+                event.version = processedModel.getVersion();
+                event.cacheHit = cacheHit;
+                event.commit();
+            }
+            return processedModel;
+        } catch (RuntimeException e) {
+            // unwrap exception of lazy initializer
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 
+    private Model processProjectModel(Model projectModel, GAV projectGAV) throws IOException {
         if (logger.isInfoEnabled()) {
             // log project header
             logger.info(projectLogHeader(projectGAV));
         }
 
-        updateModel(projectModel, gitVersionDetails.getPatchDescription());
+        try (Metrics.Measurement ignored = metrics.start("model.update")) {
+            updateModel(projectModel, gitVersionDetails.getPatchDescription());
+        }
 
-        File gitVersionedPomFile = writePomFile(projectModel);
+        File gitVersionedPomFile;
+        try (Metrics.Measurement ignored = metrics.start("model.writePom")) {
+            gitVersionedPomFile = writePomFile(projectModel);
+        }
         if (updatePom) {
             logger.debug("updating original POM file");
             Files.copy(
@@ -347,6 +584,29 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         return projectModel;
     }
 
+    /**
+     * Processed project model and an immutable snapshot of it.
+     * The processed model instance itself is owned by the reader it was read by,
+     * every other reader gets the shared snapshot.
+     * The snapshot is taken as soon as a second reader appears,
+     * so models read by their owner only are never copied.
+     * Maven copies read models before it changes them, so the processed model is still unchanged by then.
+     */
+    static final class ProcessedModel {
+
+        private final Model model;
+        private final Lazy<Model> snapshot;
+
+        ProcessedModel(Model model) {
+            this.model = model;
+            this.snapshot = Lazy.by(model::clone);
+        }
+
+        Model get(Model projectModel) {
+            return projectModel == model ? model : snapshot.get();
+        }
+    }
+
     private void updateModel(Model projectModel, RefPatchDescription patchDescription) {
         final GAV originalProjectGAV = GAV.of(projectModel);
 
@@ -395,7 +655,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         if (parent != null) {
             GAV parentGAV = GAV.of(parent);
             if (isRelatedProject(parentGAV)) {
-                String gitVersion = getGitVersion(versionFormat, parentGAV.getVersion());
+                String gitVersion = getGitVersion(versionFormat, parentGAV);
                 logger.debug("set parent version to {} ({})", gitVersion, parentGAV);
                 parent.setVersion(gitVersion);
             }
@@ -405,7 +665,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     private void updateVersion(Model projectModel, String versionFormat) {
         if (projectModel.getVersion() != null) {
             GAV projectGAV = GAV.of(projectModel);
-            String gitVersion = getGitVersion(versionFormat, projectGAV.getVersion());
+            String gitVersion = getGitVersion(versionFormat, projectGAV);
             logger.info("set version to {}", gitVersion);
             projectModel.setVersion(gitVersion);
         }
@@ -419,7 +679,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         model.getProperties().forEach((modelPropertyName, modelPropertyValue) -> {
             String propertyFormat = propertyFormats.get((String) modelPropertyName);
             if (propertyFormat != null) {
-                String gitPropertyValue = getGitPropertyValue(propertyFormat, (String) modelPropertyValue, originalProjectGAV.getVersion());
+                String gitPropertyValue = getGitPropertyValue(propertyFormat, (String) modelPropertyValue, originalProjectGAV);
                 if (!gitPropertyValue.equals(modelPropertyValue)) {
                     logger.info("set property {} to {}", modelPropertyName, gitPropertyValue);
                     model.addProperty((String) modelPropertyName, gitPropertyValue);
@@ -496,7 +756,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     private void updateVersion(Plugin plugin, String versionFormat) {
         if (plugin.getVersion() != null) {
             GAV pluginGAV = GAV.of(plugin);
-            String gitVersion = getGitVersion(versionFormat, pluginGAV.getVersion());
+            String gitVersion = getGitVersion(versionFormat, pluginGAV);
             if (logger.isDebugEnabled()) {
                 logger.debug("{}: set version to {}", pluginGAV.getProjectId(), gitVersion);
             }
@@ -507,7 +767,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     private void updateVersion(ReportPlugin plugin, String versionFormat) {
         if (plugin.getVersion() != null) {
             GAV pluginGAV = GAV.of(plugin);
-            String gitVersion = getGitVersion(versionFormat, pluginGAV.getVersion());
+            String gitVersion = getGitVersion(versionFormat, pluginGAV);
             if (logger.isDebugEnabled()) {
                 logger.debug("{}: set version to {}", pluginGAV.getProjectId(), gitVersion);
             }
@@ -558,7 +818,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     private void updateVersion(Dependency dependency, String versionFormat) {
         if (dependency.getVersion() != null) {
             GAV dependencyGAV = GAV.of(dependency);
-            String gitVersion = getGitVersion(versionFormat, dependencyGAV.getVersion());
+            String gitVersion = getGitVersion(versionFormat, dependencyGAV);
             if (logger.isDebugEnabled()) {
                 logger.debug("{}: set version to {}", dependencyGAV.getProjectId(), gitVersion);
             }
@@ -651,15 +911,38 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     // ---- versioning -------------------------------------------------------------------------------------------------
 
+    /**
+     * Starts computation of expensive git situation values on background threads,
+     * if they are referenced by any format of <code>patchDescription</code>.
+     * So they overlap with maven model building and the first placeholder evaluation only waits for the value it needs,
+     * see {@link PlaceholderRoots}.
+     * Failures of prefetches are only logged, they are memoized and thrown again on first access on the maven thread.
+     */
+    private void prefetchGitSituation(RefPatchDescription patchDescription) {
+        final List<String> formats = new ArrayList<>();
+        if (patchDescription.version != null) {
+            formats.add(patchDescription.version);
+        }
+        formats.addAll(patchDescription.properties.values());
+        formats.addAll(patchDescription.userProperties.values());
+
+        final Set<String> rootNames = placeholderRoots.names(formats);
+        if (rootNames.isEmpty()) {
+            return;
+        }
+        logger.debug("prefetch git situation: {}", String.join(", ", rootNames));
+        placeholderRoots.prefetch(formats, (rootName, e) -> logger.debug("prefetch of {} failed", rootName, e));
+    }
+
     private GitSituation getGitSituation(File pomFile) throws IOException {
-        final File baseDirectory = pomFile.getParentFile();
-        final FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(baseDirectory);
-        if (repositoryBuilder.getGitDir() == null) {
+        final File gitDirectory = RootDirectories.of(pomFile.getParentFile()).getGitDirectory();
+        if (gitDirectory == null) {
             return null;
         }
 
-        final Repository repository = repositoryBuilder.build();
-        return new GitSituation(repository) {
+        // repository handles, tags and describe results are shared with following sessions
+        final Repository repository = GitCache.shared().repository(gitDirectory);
+        return new GitSituation(repository, metrics, GitCache.shared()) {
             {
                 handleEnvironment(repository);
             }
@@ -809,32 +1092,10 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         };
     }
 
-    private static GitVersionDetails getGitVersionDetails(GitSituation gitSituation, Configuration config) {
-        final Lazy<List<String>> sortedTags = Lazy.by(gitSituation::getTags);
-        for (RefPatchDescription refConfig : config.refs.list) {
-            switch (refConfig.type) {
-                case TAG: {
-                    if (gitSituation.isDetached() || config.refs.considerTagsOnBranches) {
-                        for (String tag : sortedTags.get()) {
-                            if (refConfig.pattern == null || refConfig.pattern().matcher(tag).matches()) {
-                                return new GitVersionDetails(gitSituation.getRev(), TAG, tag, refConfig);
-                            }
-                        }
-                    }
-                }
-                break;
-                case BRANCH: {
-                    if (!gitSituation.isDetached()) {
-                        String branch = gitSituation.getBranch();
-                        if (refConfig.pattern == null || refConfig.pattern().matcher(branch).matches()) {
-                            return new GitVersionDetails(gitSituation.getRev(), BRANCH, branch, refConfig);
-                        }
-                    }
-                }
-                break;
-                default:
-                    throw new IllegalArgumentException("Unexpected ref type: " + refConfig.type);
-            }
+    private static GitVersionDetails getGitVersionDetails(GitSituation gitSituation, Configuration config, RefRuleMatcher refRuleMatcher) {
+        final GitVersionDetails refVersionDetails = refRuleMatcher.match(gitSituation);
+        if (refVersionDetails != null) {
+            return refVersionDetails;
         }
 
         if (config.rev != null) {
@@ -846,20 +1107,22 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         return null;
     }
 
-    private String getGitVersion(String versionFormat, String projectVersion) {
-        final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectVersion);
-
+    private String getGitVersion(String versionFormat, GAV projectGAV) {
+        final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectGAV);
+        placeholderRoots.resolve(versionFormat);
         return slugify(substituteText(versionFormat, placeholderMap));
     }
 
-    private String getGitPropertyValue(String propertyFormat, String originalValue, String projectVersion) {
-        final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectVersion);
+    private String getGitPropertyValue(String propertyFormat, String originalValue, GAV projectGAV) {
+        final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectGAV);
         placeholderMap.put("value", () -> originalValue);
+        placeholderRoots.resolve(propertyFormat);
         return substituteText(propertyFormat, placeholderMap);
     }
 
-    private Map<String, Supplier<String>> generateFormatPlaceholderMap(String projectVersion) {
+    private Map<String, Supplier<String>> generateFormatPlaceholderMap(GAV projectGAV) {
         final Map<String, Supplier<String>> placeholderMap = new HashMap<>(globalFormatPlaceholderMap);
+        final String projectVersion = projectGAV.getVersion();
 
         placeholderMap.put("version", Lazy.of(projectVersion));
 
@@ -890,6 +1153,24 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         // deprecated
         placeholderMap.put("version.release", Lazy.by(() -> projectVersion.replaceFirst("-.*$", "")));
 
+        // module, unknown modules e.g. configured related projects fall back to global values
+        final String modulePath = relatedProjectModulePaths != null ? relatedProjectModulePaths.get(projectGAV.getProjectId()) : null;
+
+        final Lazy<String> moduleHash = Lazy.by(() -> modulePath != null
+                ? gitSituation.getModuleRev(modulePath)
+                : gitSituation.getRev());
+        placeholderMap.put("module.commit", moduleHash);
+        placeholderMap.put("module.commit.short", Lazy.by(() -> moduleHash.get().substring(0, 7)));
+        placeholderMap.put("module.commit.timestamp", Lazy.by(() -> String.valueOf((modulePath != null
+                ? gitSituation.getModuleTimestamp(modulePath)
+                : gitSituation.getTimestamp()).toEpochSecond())));
+
+        final Lazy<Integer> moduleDescriptionDistance = Lazy.by(() -> modulePath != null
+                ? gitSituation.getModuleDescription(modulePath).getDistance()
+                : gitSituation.getDescription().getDistance());
+        placeholderMap.put("module.describe.distance", Lazy.by(() -> String.valueOf(moduleDescriptionDistance.get())));
+        placeholderMap.put("module.describe.distance.snapshot", Lazy.by(() -> (moduleDescriptionDistance.get() == 0 ? "" : "-SNAPSHOT")));
+
         final Pattern projectVersionPattern = config.projectVersionPattern();
         if (projectVersionPattern != null) {
             // ref pattern groups
@@ -910,7 +1191,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         return placeholderMap;
     }
 
-    private Map<String, Supplier<String>> generateGlobalFormatPlaceholderMap(GitSituation gitSituation, GitVersionDetails gitVersionDetails, MavenSession mavenSession) {
+    private Map<String, Supplier<String>> generateGlobalFormatPlaceholderMap(GitSituation gitSituation, GitVersionDetails gitVersionDetails, MavenSession mavenSession, PlaceholderRoots placeholderRoots) {
 
         final Map<String, Supplier<String>> placeholderMap = new HashMap<>();
 
@@ -919,6 +1200,8 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         placeholderMap.put("commit.short", Lazy.by(() -> hash.get().substring(0, 7)));
 
         final Lazy<ZonedDateTime> headCommitDateTime = Lazy.by(gitSituation::getTimestamp);
+        placeholderRoots.add("timestamp", headCommitDateTime,
+                key -> key.startsWith("commit.timestamp") || key.equals("build.timestamp.iso"));
         placeholderMap.put("commit.timestamp", Lazy.by(() -> String.valueOf(headCommitDateTime.get().toEpochSecond())));
         placeholderMap.put("commit.timestamp.year", Lazy.by(() -> String.valueOf(headCommitDateTime.get().getYear())));
         placeholderMap.put("commit.timestamp.year.2digit", Lazy.by(() -> String.valueOf(headCommitDateTime.get().getYear() % 100)));
@@ -970,11 +1253,14 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
         // dirty
         final Lazy<Boolean> dirty = Lazy.by(() -> !gitSituation.isClean());
+        placeholderRoots.add("status", dirty, key -> key.startsWith("dirty"));
         placeholderMap.put("dirty", Lazy.by(() -> dirty.get() ? "-DIRTY" : ""));
         placeholderMap.put("dirty.snapshot", Lazy.by(() -> dirty.get() ? "-SNAPSHOT" : ""));
 
         // describe
         final Lazy<GitDescription> description = Lazy.by(gitSituation::getDescription);
+        // named describe tag pattern keys e.g. describe:api.tag depend on their own root, see below
+        placeholderRoots.add("describe", description, key -> key.equals("describe") || key.startsWith("describe.") || key.startsWith("module.describe."));
         placeholderMap.put("describe", Lazy.by(() -> description.get().toString()));
         final Lazy<String> descriptionTag = Lazy.by(() -> description.get().getTag());
         placeholderMap.put("describe.tag", descriptionTag);
@@ -1005,6 +1291,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         final Lazy<Integer> descriptionDistance = Lazy.by(() -> description.get().getDistance());
         placeholderMap.put("describe.distance", Lazy.by(() -> String.valueOf(descriptionDistance.get())));
         placeholderMap.put("describe.distance.snapshot", Lazy.by(() -> (descriptionDistance.get() == 0 ? "" : "-SNAPSHOT")));
+        placeholderMap.put("describe.truncated", Lazy.by(() -> description.get().isTruncated() ? "true" : ""));
 
         placeholderMap.put("describe.tag.version.patch.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.patch").get(), descriptionDistance.get())));
         placeholderMap.put("describe.tag.version.patch.next.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.patch.next").get(), descriptionDistance.get())));
@@ -1015,6 +1302,19 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         placeholderMap.put("describe.tag.version.label.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.label").get(), descriptionDistance.get())));
         placeholderMap.put("describe.tag.version.label.next.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.label.next").get(), descriptionDistance.get())));
 
+        // named describe tag patterns e.g. ${describe:api.tag}, all of them are described by the same walk
+        for (String name : gitSituation.getDescribeTagPatterns().keySet()) {
+            final var placeholderKeyPrefix = "describe:" + name;
+            final Lazy<GitDescription> namedDescription = Lazy.by(() -> gitSituation.getDescription(name));
+            placeholderRoots.add(placeholderKeyPrefix, namedDescription, key -> key.equals(placeholderKeyPrefix) || key.startsWith(placeholderKeyPrefix + "."));
+            placeholderMap.put(placeholderKeyPrefix, Lazy.by(() -> namedDescription.get().toString()));
+            placeholderMap.put(placeholderKeyPrefix + ".tag", Lazy.by(() -> namedDescription.get().getTag()));
+            placeholderMap.put(placeholderKeyPrefix + ".tag.version", Lazy.by(() -> requireNonNullElse(matchVersion(namedDescription.get().getTag()).group("version"), "0.0.0")));
+            placeholderMap.put(placeholderKeyPrefix + ".distance", Lazy.by(() -> String.valueOf(namedDescription.get().getDistance())));
+            placeholderMap.put(placeholderKeyPrefix + ".distance.snapshot", Lazy.by(() -> (namedDescription.get().getDistance() == 0 ? "" : "-SNAPSHOT")));
+            placeholderMap.put(placeholderKeyPrefix + ".truncated", Lazy.by(() -> namedDescription.get().isTruncated() ? "true" : ""));
+        }
+
         // describe tag pattern groups
         final Lazy<Map<String, String>> describeTagPatternValues = Lazy.by(
                 () -> patternGroupValues(gitSituation.getDescribeTagPattern(), descriptionTag.get()));
@@ -1053,22 +1353,31 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     // ---- configuration -------------------------------------------------------------------------------------------------
 
     private static File findMvnDirectory(File pomFile) throws IOException {
-        File searchDirectory = pomFile.getParentFile();
-        while (searchDirectory != null) {
-            File mvnDir = new File(searchDirectory, ".mvn");
-            if (mvnDir.exists()) {
-                return mvnDir;
-            }
-            searchDirectory = searchDirectory.getParentFile();
+        // searches git directory along the way, see getGitSituation
+        final File mvnDirectory = RootDirectories.of(pomFile.getParentFile()).getMvnDirectory();
+        if (mvnDirectory == null) {
+            throw new FileNotFoundException("Can not find .mvn directory in hierarchy of " + pomFile);
         }
-
-        throw new FileNotFoundException("Can not find .mvn directory in hierarchy of " + pomFile);
+        return mvnDirectory;
     }
 
-    private static Configuration readConfig(File configFile) throws IOException {
-        final XmlMapper xmlMapper = XmlMapper.builder().enable(ACCEPT_CASE_INSENSITIVE_ENUMS).build();
+    private CachedConfiguration readConfig(File configFile) throws IOException {
+        final File canonicalConfigFile = configFile.getCanonicalFile();
+        final FileFingerprint fingerprint = FileFingerprint.of(canonicalConfigFile);
+        final CachedConfiguration cachedConfig = CONFIGURATION_CACHE.get(canonicalConfigFile);
+        if (cachedConfig != null && cachedConfig.fingerprint.equals(fingerprint)) {
+            logger.debug("reuse config of previous session");
+            metrics.counter("config.cache.hits").increment();
+            return cachedConfig;
+        }
+
+        final CachedConfiguration config = new CachedConfiguration(fingerprint, parseConfig(canonicalConfigFile));
+        CONFIGURATION_CACHE.put(canonicalConfigFile, config);
+        return config;
+    }
 
-        final Configuration config = xmlMapper.readValue(configFile, Configuration.class);
+    private static Configuration parseConfig(File configFile) throws IOException {
+        final Configuration config = CONFIGURATION_READER.get().readValue(configFile);
 
         // consider global config
         List<PatchDescription> patchDescriptions = new ArrayList<>(config.refs.list);
@@ -1082,6 +1391,12 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             if (patchDescription.describeTagFirstParent == null) {
                 patchDescription.describeTagFirstParent = config.describeTagFirstParent;
             }
+            if (patchDescription.describeMaxDepth == null) {
+                patchDescription.describeMaxDepth = config.describeMaxDepth;
+            }
+            if (patchDescription.describeTagPatterns.isEmpty()) {
+                patchDescription.describeTagPatterns = config.describeTagPatterns;
+            }
             if (patchDescription.updatePom == null) {
                 patchDescription.updatePom = config.updatePom;
             }
@@ -1090,20 +1405,25 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         return config;
     }
 
-    private String getCommandOption(final String name) {
-        String value = mavenSession.getUserProperties().getProperty(name);
-        if (value == null) {
-            String plainName = name.replaceFirst("^versioning\\.", "");
-            String environmentVariableName = "VERSIONING_"
-                    + String.join("_", plainName.split("(?=\\p{Lu})"))
-                    .replaceAll("\\.", "_")
-                    .toUpperCase();
-            value = System.getenv(environmentVariableName);
-        }
-        if (value == null) {
-            value = System.getProperty(name);
+    /**
+     * Parsed configuration, its ref matcher and the fingerprint of the config file it has been parsed from.
+     * The configuration must not be modified, because it is shared by following sessions.
+     */
+    private static final class CachedConfiguration {
+
+        private final FileFingerprint fingerprint;
+        private final Configuration config;
+        private final RefRuleMatcher refRuleMatcher;
+
+        CachedConfiguration(FileFingerprint fingerprint, Configuration config) {
+            this.fingerprint = fingerprint;
+            this.config = config;
+            this.refRuleMatcher = new RefRuleMatcher(config.refs);
         }
-        return value;
+    }
+
+    private String getCommandOption(final String name) {
+        return commandOptions.get(name);
     }
 
     private boolean getUpdatePomOption(final PatchDescription gitRefConfig) {
@@ -1122,16 +1442,16 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     // ---- determine related projects ---------------------------------------------------------------------------------
 
-    private Set<GAV> determineRelatedProjects(Model projectModel) throws IOException {
+    private Set<GAV> determineRelatedProjects(Model projectModel, Map<String, String> modulePaths) throws IOException {
         final HashSet<GAV> relatedProjects = new HashSet<>();
-        determineRelatedProjects(projectModel, relatedProjects);
+        determineRelatedProjects(projectModel, relatedProjects, modulePaths);
         config.relatedProjects.stream()
                 .map(it -> new GAV(it.groupId, it.artifactId, "*"))
                 .forEach(relatedProjects::add);
         return relatedProjects;
     }
 
-    private void determineRelatedProjects(Model projectModel, Set<GAV> relatedProjects) throws IOException {
+    private void determineRelatedProjects(Model projectModel, Set<GAV> relatedProjects, Map<String, String> modulePaths) throws IOException {
         final GAV projectGAV = GAV.of(projectModel);
         if (relatedProjects.contains(projectGAV)) {
             return;
@@ -1139,16 +1459,17 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
         // add self
         relatedProjects.add(projectGAV);
+        modulePaths.put(projectGAV.getProjectId(), modulePath(projectModel).replace(File.separatorChar, '/'));
 
         // check for related parent project by parent tag
         if (projectModel.getParent() != null) {
             final GAV parentGAV = GAV.of(projectModel.getParent());
             final File parentProjectPomFile = getParentProjectPomFile(projectModel);
             if (isRelatedPom(parentProjectPomFile)) {
-                final Model parentProjectModel = readModel(parentProjectPomFile);
+                final Model parentProjectModel = readRelatedModel(parentProjectPomFile);
                 final GAV parentProjectGAV = GAV.of(parentProjectModel);
                 if (parentProjectGAV.equals(parentGAV)) {
-                    determineRelatedProjects(parentProjectModel, relatedProjects);
+                    determineRelatedProjects(parentProjectModel, relatedProjects, modulePaths);
                 }
             }
         }
@@ -1156,16 +1477,21 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         // check for related parent project within parent directory
         final Model parentProjectModel = searchParentProjectInParentDirectory(projectModel);
         if (parentProjectModel != null) {
-            determineRelatedProjects(parentProjectModel, relatedProjects);
+            determineRelatedProjects(parentProjectModel, relatedProjects, modulePaths);
         }
 
         //  process modules
         for (File modulePomFile : getProjectModules(projectModel)) {
-            Model moduleProjectModel = readModel(modulePomFile);
-            determineRelatedProjects(moduleProjectModel, relatedProjects);
+            Model moduleProjectModel = readRelatedModel(modulePomFile);
+            determineRelatedProjects(moduleProjectModel, relatedProjects, modulePaths);
         }
     }
 
+    private Model readRelatedModel(File pomFile) throws IOException {
+        metrics.counter("maven.poms.read").increment();
+        return readModel(pomFile);
+    }
+
     private boolean isRelatedProject(GAV project) {
         return relatedProjects.contains(project)
                 || relatedProjects.contains(new GAV(project.getGroupId(), project.getArtifactId(), "*"));
@@ -1194,7 +1520,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         File parentDirectoryPomFile = pomFile(projectModel.getProjectDirectory().getParentFile(), "pom.xml");
         if (parentDirectoryPomFile.exists() && isRelatedPom(parentDirectoryPomFile)) {
             // check if parent has module that points to current project directory
-            Model parentDirectoryProjectModel = readModel(parentDirectoryPomFile);
+            Model parentDirectoryProjectModel = readRelatedModel(parentDirectoryPomFile);
             for (File modulePomFile : getProjectModules(parentDirectoryProjectModel)) {
                 if (modulePomFile.getCanonicalFile().equals(projectModel.getPomFile().getCanonicalFile())) {
                     return parentDirectoryProjectModel;
@@ -1241,193 +1567,62 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     // ---- generate git versioned pom file ----------------------------------------------------------------------------
 
     private File writePomFile(Model projectModel) throws IOException {
+        VersioningEvents.PomWrite event = new VersioningEvents.PomWrite();
+        event.begin();
         File gitVersionedPomFile = new File(projectModel.getProjectDirectory(), GIT_VERSIONING_POM_NAME);
         logger.debug("generate {}", gitVersionedPomFile);
 
         // In case another ModelProcessor is used (like for example polyglot extension),
         // we need to work on the POM possibly translated into XML
-        Document gitVersionedPomDocument = readXml(this.locatePom(projectModel.getProjectDirectory()));
-        Element projectElement = gitVersionedPomDocument.getChild("project");
-
-        // update project
-        updateParentVersion(projectElement, projectModel.getParent());
-        updateVersion(projectElement, projectModel);
-        updatePropertyValues(projectElement, projectModel);
-        updateDependencyVersions(projectElement, projectModel);
-        updatePluginVersions(projectElement, projectModel.getBuild(), projectModel.getReporting());
-
-        updateProfiles(projectElement, projectModel.getProfiles());
-
-        writeXml(gitVersionedPomFile, gitVersionedPomDocument);
-
-        return gitVersionedPomFile;
-    }
+        byte[] pom = readAllBytes(this.locatePom(projectModel.getProjectDirectory()).toPath());
 
-    private static void updateParentVersion(Element projectElement, Parent parent) {
-        Element parentElement = projectElement.getChild("parent");
-        if (parentElement != null) {
-            Element parentVersionElement = parentElement.getChild("version");
-            parentVersionElement.setText(parent.getVersion());
+        // skip generation if pom and computed versions and properties did not change since last generation
+        final File cacheStateFile = GitVersionedPomCache.stateFile(projectModel);
+        final String inputDigest = GitVersionedPomCache.digest(pom, projectModel);
+        if (GitVersionedPomCache.isUpToDate(cacheStateFile, inputDigest, gitVersionedPomFile)) {
+            logger.debug("skip generation - {} is up to date", gitVersionedPomFile);
+            commitPomWriteEvent(event, projectModel, true, 0);
+            return gitVersionedPomFile;
         }
-    }
 
-    private static void updateVersion(Element projectElement, Model projectModel) {
-        Element versionElement = projectElement.getChild("version");
-        if (versionElement != null) {
-            versionElement.setText(projectModel.getVersion());
-        }
-    }
+        // update parent, version, properties, dependencies, plugins and profiles
+        byte[] gitVersionedPom = PomRewriter.rewrite(pom, projectModel);
 
-    private void updatePropertyValues(Element element, ModelBase model) {
-        // properties section
-        Element propertiesElement = element.getChild("properties");
-        if (propertiesElement != null) {
-            propertiesElement.getChildren().forEach(propertyElement -> {
-                String modelPropertyValue = model.getProperties().getProperty(propertyElement.getName());
-                if (modelPropertyValue != null) {
-                    if (!Objects.equals(propertyElement.getText(), modelPropertyValue)) {
-                        propertyElement.setText(modelPropertyValue);
-                    }
-                }
-            });
-        }
-    }
+        writeXml(gitVersionedPomFile, gitVersionedPom);
 
-    private static void updateDependencyVersions(Element element, ModelBase model) {
-        // dependencies section
-        {
-            Element dependenciesElement = element.getChild("dependencies");
-            if (dependenciesElement != null) {
-                updateDependencyVersions(dependenciesElement, model.getDependencies());
-            }
-        }
-        // dependencyManagement section
-        Element dependencyManagementElement = element.getChild("dependencyManagement");
-        if (dependencyManagementElement != null) {
-            Element dependenciesElement = dependencyManagementElement.getChild("dependencies");
-            if (dependenciesElement != null) {
-                updateDependencyVersions(dependenciesElement, model.getDependencyManagement().getDependencies());
-            }
+        try {
+            GitVersionedPomCache.update(cacheStateFile, inputDigest, gitVersionedPomFile);
+        } catch (IOException e) {
+            logger.debug("can not write git versioned pom cache state file {}", cacheStateFile, e);
         }
-    }
-
-    private static void updateDependencyVersions(Element dependenciesElement, List<Dependency> dependencies) {
-        forEachPair(dependenciesElement.getChildren(), dependencies, (dependencyElement, dependency) -> {
-            // sanity check
-            if (!Objects.equals(dependency.getManagementKey(), getDependencyManagementKey(dependencyElement))) {
-                throw new IllegalArgumentException("Unexpected difference of xml and model dependencies order");
-            }
-
-            Element dependencyVersionElement = dependencyElement.getChild("version");
-            if (dependencyVersionElement != null) {
-                dependencyVersionElement.setText(dependency.getVersion());
-            }
-        });
-    }
 
-    private static String getDependencyManagementKey(Element element) {
-        Element groupId = element.getChild("groupId");
-        Element artifactId = element.getChild("artifactId");
-        Element type = element.getChild("type");
-        Element classifier = element.getChild("classifier");
-        return (groupId != null ? groupId.getText().trim() : "")
-                + ":" + (artifactId != null ? artifactId.getText().trim() : "")
-                + ":" + (type != null ? type.getText().trim() : "jar")
-                + (classifier != null ? ":" + classifier.getText().trim() : "");
+        commitPomWriteEvent(event, projectModel, false, gitVersionedPom.length);
+        return gitVersionedPomFile;
     }
 
-    private static void updatePluginVersions(Element projectElement, BuildBase build, Reporting reporting) {
-        // build section
-        Element buildElement = projectElement.getChild("build");
-        if (buildElement != null) {
-            // plugins section
-            {
-                Element pluginsElement = buildElement.getChild("plugins");
-                if (pluginsElement != null) {
-                    updatePluginVersions(pluginsElement, build.getPlugins());
-                }
-            }
-            // pluginManagement section
-            Element pluginsManagementElement = buildElement.getChild("pluginsManagement");
-            if (pluginsManagementElement != null) {
-                Element pluginsElement = pluginsManagementElement.getChild("plugins");
-                if (pluginsElement != null) {
-                    updatePluginVersions(pluginsElement, build.getPluginManagement().getPlugins());
-                }
-            }
-        }
-
-        Element reportingElement = projectElement.getChild("reporting");
-        if (reportingElement != null) {
-            // plugins section
-            {
-                Element pluginsElement = reportingElement.getChild("plugins");
-                if (pluginsElement != null) {
-                    updateReportPluginVersions(pluginsElement, reporting.getPlugins());
-                }
-            }
+    private void commitPomWriteEvent(VersioningEvents.PomWrite event, Model projectModel, boolean cacheHit, long size) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.modulePath = modulePath(projectModel);
+            event.cacheHit = cacheHit;
+            event.size = size;
+            event.commit();
         }
     }
 
-    private static void updatePluginVersions(Element pluginsElement, List<Plugin> plugins) {
-        forEachPair(pluginsElement.getChildren(), plugins, (pluginElement, plugin) -> {
-            // sanity check
-            if (!Objects.equals(plugin.getKey(), getPluginKey(pluginElement))) {
-                throw new IllegalArgumentException("Unexpected difference of xml and model plugin order");
-            }
-
-            Element pluginVersionElement = pluginElement.getChild("version");
-            if (pluginVersionElement != null) {
-                pluginVersionElement.setText(plugin.getVersion());
-            }
-            
-            Element dependenciesElement = pluginElement.getChild("dependencies");
-            List<Dependency> dependencies = plugin.getDependencies();
-            if (!dependencies.isEmpty() && dependenciesElement != null) {
-                updateDependencyVersions(dependenciesElement, dependencies);
-            }
-        });
-    }
 
-    private static void updateReportPluginVersions(Element pluginsElement, List<ReportPlugin> plugins) {
-        forEachPair(pluginsElement.getChildren(), plugins, (pluginElement, plugin) -> {
-            // sanity check
-            if (!Objects.equals(plugin.getKey(), getPluginKey(pluginElement))) {
-                throw new IllegalArgumentException("Unexpected difference of xml and model report plugin order");
-            }
-
-            Element pluginVersionElement = pluginElement.getChild("version");
-            if (pluginVersionElement != null) {
-                pluginVersionElement.setText(plugin.getVersion());
-            }
-        });
-    }
+    // ---- misc -------------------------------------------------------------------------------------------------------
 
-    private static String getPluginKey(Element element) {
-        Element groupId = element.getChild("groupId");
-        Element artifactId = element.getChild("artifactId");
-        return (groupId != null ? groupId.getText().trim() : "org.apache.maven.plugins")
-                + ":" + (artifactId != null ? artifactId.getText().trim() : "");
-    }
-
-    private void updateProfiles(Element projectElement, List<Profile> profiles) {
-        Element profilesElement = projectElement.getChild("profiles");
-        if (profilesElement != null) {
-            Map<String, Profile> profileMap = profiles.stream()
-                    .collect(toMap(Profile::getId, it -> it));
-            for (Element profileElement : profilesElement.getChildren("profile")) {
-                String profileId = profileElement.getChild("id").getText().trim();
-                Profile profile = profileMap.get(profileId);
-                updatePropertyValues(profileElement, profile);
-                updateDependencyVersions(profileElement, profile);
-                updatePluginVersions(profileElement, profile.getBuild(), profile.getReporting());
-            }
+    private String modulePath(Model projectModel) {
+        File projectDirectory = projectModel.getProjectDirectory();
+        if (gitSituation == null) {
+            return projectDirectory.getPath();
         }
+        return gitSituation.getRootDirectory().toPath().toAbsolutePath()
+                .relativize(projectDirectory.toPath().toAbsolutePath())
+                .toString();
     }
 
-
-    // ---- misc -------------------------------------------------------------------------------------------------------
-
     private static String extensionLogHeader(GAV extensionGAV) {
         String extension = extensionGAV.toString();
         String metaInfo = "[core extension]";
@@ -1,8 +1,5 @@
 package me.qoomon.maven.gitversioning;
 
-import de.pdark.decentxml.Document;
-import de.pdark.decentxml.XMLParser;
-import de.pdark.decentxml.XMLStringSource;
 import org.apache.maven.model.BuildBase;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.ModelBase;
@@ -12,10 +9,13 @@ import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 
-import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 /**
  * Created by qoomon on 18/11/2016.
@@ -30,8 +30,9 @@ final class MavenUtil {
      * @throws IOException IOException
      */
     static Model readModel(File pomFile) throws IOException {
-        try (FileReader fileReader = new FileReader(pomFile)) {
-            Model model = new MavenXpp3Reader().read(fileReader);
+        // read as stream to respect xml encoding declaration instead of platform charset
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(pomFile.toPath()))) {
+            Model model = new MavenXpp3Reader().read(inputStream);
             model.setPomFile(pomFile);
             return model;
         } catch (XmlPullParserException e) {
@@ -47,8 +48,9 @@ final class MavenUtil {
      * @throws IOException IOException
      */
     static void writeModel(File pomFile, Model model) throws IOException {
-        try (FileWriter fileWriter = new FileWriter(pomFile)) {
-            new MavenXpp3Writer().write(fileWriter, model);
+        // write as stream to use model encoding (UTF-8 by default) instead of platform charset
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(pomFile.toPath()))) {
+            new MavenXpp3Writer().write(outputStream, model);
         }
     }
 
@@ -67,22 +69,55 @@ final class MavenUtil {
         return modulePomFile;
     }
 
-    public static void writeXml(final File file, final Document gitVersionedPom) throws IOException {
-        byte[] gitVersionedPomBytes = gitVersionedPom.toXML().getBytes();
-        if (file.exists()) {
-            byte[] existingPomBytes = readAllBytes(file.toPath());
-            if (Arrays.equals(gitVersionedPomBytes, existingPomBytes)) {
-                // do not write if there is no change
-                return;
+    /**
+     * Writes content to file, if file content differs.
+     * <p>
+     * Existing file content is compared chunk by chunk and comparison stops at first difference.
+     * New content is written to a temporary file first and moved to <code>file</code> afterwards,
+     * so readers will never see a partially written file.
+     *
+     * @param file    file
+     * @param content new file content
+     * @throws IOException IOException
+     */
+    public static void writeXml(final File file, final byte[] content) throws IOException {
+        if (hasContent(file, content)) {
+            // do not write if there is no change
+            return;
+        }
+
+        Path filePath = file.toPath();
+        Path tempFilePath = Files.createTempFile(filePath.toAbsolutePath().getParent(), file.getName(), ".tmp");
+        try {
+            Files.write(tempFilePath, content);
+            try {
+                Files.move(tempFilePath, filePath, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFilePath, filePath, REPLACE_EXISTING);
             }
+        } finally {
+            Files.deleteIfExists(tempFilePath);
         }
-        Files.write(file.toPath(), gitVersionedPomBytes);
     }
 
-    public static Document readXml(File file) throws IOException {
-        String pomXml = new String(readAllBytes(file.toPath()));
-        XMLParser parser = new XMLParser();
-        return parser.parse(new XMLStringSource(pomXml));
+    private static boolean hasContent(final File file, final byte[] content) throws IOException {
+        // size check avoids reading file at all in most cases
+        if (!file.isFile() || file.length() != content.length) {
+            return false;
+        }
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[8192];
+            int offset = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                if (offset + read > content.length
+                        || Arrays.mismatch(buffer, 0, read, content, offset, offset + read) >= 0) {
+                    return false;
+                }
+                offset += read;
+            }
+            return offset == content.length;
+        }
     }
 
     public static BuildBase getBuild(ModelBase model) {
@@ -0,0 +1,117 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import me.qoomon.gitversioning.commons.Metrics;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.apache.maven.shared.utils.StringUtils.leftPad;
+import static org.apache.maven.shared.utils.StringUtils.rightPad;
+
+/**
+ * Renders {@link Metrics} as human-readable tables and as machine-readable json report.
+ */
+final class MetricsReport {
+
+    static final String REPORT_FILE_NAME = "git-versioning-timings.json";
+
+    private MetricsReport() {
+    }
+
+    /**
+     * @param metrics metrics
+     * @return timer table lines e.g. <code>git.describe   1   12.345 ms   12.345 ms</code>, followed by counter table lines
+     */
+    static List<String> table(Metrics metrics) {
+        List<Metrics.Timer> timers = metrics.getTimers();
+        int nameWidth = "phase".length();
+        for (Metrics.Timer timer : timers) {
+            nameWidth = Math.max(nameWidth, timer.getName().length());
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(rightPad("phase", nameWidth) + "  " + leftPad("count", 5) + "  " + leftPad("total", 12) + "  " + leftPad("max", 12));
+        for (Metrics.Timer timer : timers) {
+            lines.add(rightPad(timer.getName(), nameWidth)
+                    + "  " + leftPad(String.valueOf(timer.getCount()), 5)
+                    + "  " + leftPad(formatMillis(timer.getTotalNanos()) + " ms", 12)
+                    + "  " + leftPad(formatMillis(timer.getMaxNanos()) + " ms", 12));
+        }
+        if (!metrics.getCounters().isEmpty()) {
+            lines.add("");
+            lines.addAll(counterTable(metrics));
+        }
+        return lines;
+    }
+
+    /**
+     * @param metrics metrics
+     * @return table lines e.g. <code>git.describe.commits   42</code>
+     */
+    static List<String> counterTable(Metrics metrics) {
+        List<Metrics.Counter> counters = metrics.getCounters();
+        int nameWidth = "counter".length();
+        for (Metrics.Counter counter : counters) {
+            nameWidth = Math.max(nameWidth, counter.getName().length());
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(rightPad("counter", nameWidth) + "  " + leftPad("value", 12));
+        for (Metrics.Counter counter : counters) {
+            lines.add(rightPad(counter.getName(), nameWidth) + "  " + leftPad(String.valueOf(counter.getValue()), 12));
+        }
+        return lines;
+    }
+
+    /**
+     * @param session maven session
+     * @return report file within top level project build directory e.g. target/git-versioning-timings.json
+     */
+    static File reportFile(MavenSession session) {
+        MavenProject topLevelProject = session.getTopLevelProject();
+        if (topLevelProject != null && topLevelProject.getBuild() != null && topLevelProject.getBuild().getDirectory() != null) {
+            return new File(topLevelProject.getBuild().getDirectory(), REPORT_FILE_NAME);
+        }
+        return new File(new File(session.getExecutionRootDirectory(), "target"), REPORT_FILE_NAME);
+    }
+
+    /**
+     * @param metrics    metrics
+     * @param reportFile json report file
+     * @throws IOException if report can not be written
+     */
+    static void writeJson(Metrics metrics, File reportFile) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ObjectNode report = mapper.createObjectNode();
+        report.put("extension", BuildProperties.projectGAV().toString());
+        ArrayNode timers = report.putArray("timers");
+        for (Metrics.Timer timer : metrics.getTimers()) {
+            timers.addObject()
+                    .put("name", timer.getName())
+                    .put("count", timer.getCount())
+                    .put("totalNanos", timer.getTotalNanos())
+                    .put("maxNanos", timer.getMaxNanos());
+        }
+        ObjectNode counters = report.putObject("counters");
+        for (Metrics.Counter counter : metrics.getCounters()) {
+            counters.put(counter.getName(), counter.getValue());
+        }
+
+        Files.createDirectories(reportFile.getParentFile().toPath());
+        Files.write(reportFile.toPath(), mapper.writeValueAsBytes(report));
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
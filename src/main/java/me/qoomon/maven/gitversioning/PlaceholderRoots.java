@@ -0,0 +1,141 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.Lazy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.toList;
+import static me.qoomon.gitversioning.commons.StringUtil.placeholderKeys;
+
+/**
+ * Expensive root values of placeholders e.g. git description, git status and commit timestamp.
+ * <p>
+ * Placeholder values are lazy values depending on each other
+ * e.g. <code>${describe.tag.version.patch.next}</code> depends on <code>${describe.tag.version.patch}</code>,
+ * which depends on the git description.
+ * Each root declares the placeholder keys depending on it,
+ * so all roots needed by a format are known before the format is substituted
+ * and independent roots can be resolved in parallel instead of one after another.
+ * <p>
+ * Roots are {@link Lazy} values, so each root is still computed at most once, regardless of the resolving thread.
+ */
+final class PlaceholderRoots {
+
+    private final Executor executor;
+    private final List<Root> roots = new ArrayList<>();
+
+    // format -> needed roots
+    private final Map<String, List<Root>> formatRoots = new ConcurrentHashMap<>();
+
+    /**
+     * @param executor executor to resolve roots in parallel
+     */
+    PlaceholderRoots(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param name          root name e.g. <code>describe</code>
+     * @param value         root value
+     * @param dependentKeys matches placeholder keys depending on <code>value</code>
+     */
+    void add(String name, Lazy<?> value, Predicate<String> dependentKeys) {
+        roots.add(new Root(name, value, dependentKeys));
+        formatRoots.clear();
+    }
+
+    /**
+     * @param formats formats e.g. <code>${describe.tag}-${dirty}</code>
+     * @return names of roots needed by any of <code>formats</code>
+     */
+    Set<String> names(Collection<String> formats) {
+        Set<String> names = new LinkedHashSet<>();
+        formats.forEach(format -> roots(format).forEach(root -> names.add(root.name)));
+        return names;
+    }
+
+    /**
+     * Starts resolution of all roots needed by any of <code>formats</code> in background.
+     * Failures are memoized and thrown again on first access, see {@link Lazy}.
+     *
+     * @param formats formats e.g. <code>${describe.tag}-${dirty}</code>
+     * @param onFailure called on failed root resolution with root name and failure
+     */
+    void prefetch(Collection<String> formats, BiConsumer<String, RuntimeException> onFailure) {
+        Set<Root> neededRoots = new LinkedHashSet<>();
+        formats.forEach(format -> neededRoots.addAll(roots(format)));
+        for (Root root : neededRoots) {
+            executor.execute(() -> {
+                try {
+                    root.value.get();
+                } catch (RuntimeException e) {
+                    onFailure.accept(root.name, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Resolves all unresolved roots needed by <code>format</code>.
+     * One root is resolved on the calling thread, all others in parallel on the executor.
+     *
+     * @param format format e.g. <code>${describe.tag}-${dirty}</code>
+     * @throws RuntimeException failure of any needed root
+     */
+    void resolve(String format) {
+        List<Root> unresolvedRoots = roots(format).stream()
+                .filter(root -> !root.value.isInitialized())
+                .collect(toList());
+        if (unresolvedRoots.size() < 2) {
+            // nothing to parallelize, root will be resolved on first access
+            return;
+        }
+
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (Root root : unresolvedRoots.subList(1, unresolvedRoots.size())) {
+            futures.add(CompletableFuture.runAsync(root.value::get, executor));
+        }
+        unresolvedRoots.get(0).value.get();
+        try {
+            futures.forEach(CompletableFuture::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private List<Root> roots(String format) {
+        return formatRoots.computeIfAbsent(format, key -> {
+            Set<String> placeholderKeys = placeholderKeys(format);
+            return roots.stream()
+                    .filter(root -> placeholderKeys.stream().anyMatch(root.dependentKeys))
+                    .collect(toList());
+        });
+    }
+
+    private static final class Root {
+
+        private final String name;
+        private final Lazy<?> value;
+        private final Predicate<String> dependentKeys;
+
+        Root(String name, Lazy<?> value, Predicate<String> dependentKeys) {
+            this.name = name;
+            this.value = value;
+            this.dependentKeys = dependentKeys;
+        }
+    }
+}
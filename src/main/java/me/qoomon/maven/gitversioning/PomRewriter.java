@@ -0,0 +1,750 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Patches version and property values of a POM file in a single pass over its bytes.
+ * <p>
+ * Only the text of elements, that differs from the given model, is replaced.
+ * Everything else is copied as is, so formatting, comments and entities of the original POM are preserved.
+ */
+final class PomRewriter {
+
+    private static final Pattern XML_DECLARATION_ENCODING = Pattern.compile("^<\\?xml[^>]*?encoding\\s*=\\s*[\"'](?<encoding>[^\"']+)[\"']");
+
+    private enum Kind {
+        PROJECT, PROFILES, PROFILE, PARENT,
+        PROPERTIES, DEPENDENCY_MANAGEMENT, DEPENDENCIES, DEPENDENCY,
+        BUILD, PLUGIN_MANAGEMENT, REPORTING, PLUGINS, PLUGIN,
+        VALUE
+    }
+
+    private final byte[] pom;
+    private final Charset charset;
+    private int pos = 0;
+
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private int ignoredDepth = 0;
+
+    private Section projectSection;
+    private final List<Section> profileSections = new ArrayList<>();
+
+    private PomRewriter(byte[] pom) throws IOException {
+        this.pom = pom;
+        this.charset = charset(pom);
+    }
+
+    /**
+     * Patches versions and property values of <code>pom</code> to match <code>model</code>
+     *
+     * @param pom   original pom file content
+     * @param model updated project model of <code>pom</code>
+     * @return patched pom file content
+     * @throws IOException if pom content can not be parsed
+     */
+    static byte[] rewrite(byte[] pom, Model model) throws IOException {
+        PomRewriter rewriter = new PomRewriter(pom);
+        rewriter.parse();
+        return rewriter.apply(rewriter.resolveEdits(model));
+    }
+
+    // ---- parsing ----------------------------------------------------------------------------------------------------
+
+    private void parse() throws IOException {
+        final int length = pom.length;
+        while (pos < length) {
+            if (pom[pos] != '<') {
+                int textStart = pos;
+                pos = indexOf("<", pos, false);
+                text(textStart, pos, false);
+            } else if (startsWith("<!--", pos)) {
+                pos = indexOf("-->", pos, true) + 3;
+            } else if (startsWith("<![CDATA[", pos)) {
+                int textStart = pos + 9;
+                int textEnd = indexOf("]]>", textStart, true);
+                text(textStart, textEnd, true);
+                pos = textEnd + 3;
+            } else if (startsWith("<?", pos)) {
+                pos = indexOf("?>", pos, true) + 2;
+            } else if (startsWith("<!", pos)) {
+                skipDeclaration();
+            } else if (startsWith("</", pos)) {
+                endTag();
+            } else {
+                startTag();
+            }
+        }
+        if (!frames.isEmpty() || ignoredDepth > 0) {
+            throw new IOException("Unexpected end of pom content");
+        }
+        if (projectSection == null) {
+            throw new IOException("Missing <project> element");
+        }
+    }
+
+    private void startTag() throws IOException {
+        final int tagStart = pos;
+        final int nameStart = pos + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < pom.length && !isNameEnd(pom[nameEnd])) {
+            nameEnd++;
+        }
+
+        // skip attributes
+        pos = nameEnd;
+        boolean selfClosing = false;
+        while (true) {
+            if (pos >= pom.length) {
+                throw new IOException("Unexpected end of pom content within tag at position " + tagStart);
+            }
+            byte b = pom[pos];
+            if (b == '"' || b == '\'') {
+                pos = indexOf(b == '"' ? "\"" : "'", pos + 1, true) + 1;
+            } else if (b == '>') {
+                pos++;
+                break;
+            } else if (b == '/' && pos + 1 < pom.length && pom[pos + 1] == '>') {
+                selfClosing = true;
+                pos += 2;
+                break;
+            } else {
+                pos++;
+            }
+        }
+
+        if (ignoredDepth > 0) {
+            if (!selfClosing) {
+                ignoredDepth++;
+            }
+            return;
+        }
+
+        Frame parent = frames.peek();
+        Frame frame = parent == null
+                ? documentChild(nameStart, nameEnd)
+                : parent.kind == Kind.VALUE ? null : child(parent, nameStart, nameEnd);
+        if (frame == null) {
+            if (!selfClosing) {
+                ignoredDepth++;
+            }
+            return;
+        }
+
+        frame.tagStart = tagStart;
+        frame.contentStart = pos;
+        if (selfClosing) {
+            frame.tagEnd = pos;
+            frame.contentEnd = pos;
+            frame.selfClosing = true;
+            frame.tagName = new String(pom, nameStart, nameEnd - nameStart, charset);
+            finish(frame);
+        } else {
+            frames.push(frame);
+        }
+    }
+
+    private void endTag() throws IOException {
+        final int tagStart = pos;
+        pos = indexOf(">", pos, true) + 1;
+
+        if (ignoredDepth > 0) {
+            ignoredDepth--;
+            return;
+        }
+
+        Frame frame = frames.poll();
+        if (frame == null) {
+            throw new IOException("Unexpected end tag at position " + tagStart);
+        }
+        frame.contentEnd = tagStart;
+        frame.tagEnd = pos;
+        finish(frame);
+    }
+
+    private void text(int start, int end, boolean cdata) {
+        if (ignoredDepth > 0 || start == end) {
+            return;
+        }
+        Frame frame = frames.peek();
+        if (frame != null && frame.kind == Kind.VALUE) {
+            if (frame.text == null) {
+                frame.text = new StringBuilder();
+            }
+            String text = new String(pom, start, end - start, charset);
+            frame.text.append(cdata ? text : decodeEntities(text));
+        }
+    }
+
+    private void skipDeclaration() throws IOException {
+        // e.g. <!DOCTYPE project [ <!ENTITY foo "bar"> ]>
+        int bracketDepth = 0;
+        while (pos < pom.length) {
+            byte b = pom[pos++];
+            if (b == '"' || b == '\'') {
+                pos = indexOf(b == '"' ? "\"" : "'", pos, true) + 1;
+            } else if (b == '[') {
+                bracketDepth++;
+            } else if (b == ']') {
+                bracketDepth--;
+            } else if (b == '>' && bracketDepth == 0) {
+                return;
+            }
+        }
+        throw new IOException("Unexpected end of pom content within declaration");
+    }
+
+    // ---- structure --------------------------------------------------------------------------------------------------
+
+    private Frame documentChild(int nameStart, int nameEnd) throws IOException {
+        if (!nameEquals(nameStart, nameEnd, "project")) {
+            throw new IOException("Unexpected root element, expected <project>");
+        }
+        if (projectSection != null) {
+            return null;
+        }
+        projectSection = new Section(null);
+        return new Frame(Kind.PROJECT).section(projectSection);
+    }
+
+    private Frame child(Frame parent, int nameStart, int nameEnd) {
+        switch (parent.kind) {
+            case PROJECT:
+                if (nameEquals(nameStart, nameEnd, "parent")) {
+                    return parent.section.parentSeen ? null : new Frame(Kind.PARENT).section(parent.section);
+                }
+                if (nameEquals(nameStart, nameEnd, "version")) {
+                    return parent.section.version != null ? null : valueFrame(site -> parent.section.version = site);
+                }
+                if (nameEquals(nameStart, nameEnd, "profiles")) {
+                    return parent.section.profilesSeen ? null : new Frame(Kind.PROFILES).section(parent.section);
+                }
+                return sectionChild(parent, nameStart, nameEnd);
+            case PROFILE:
+                if (nameEquals(nameStart, nameEnd, "id")) {
+                    return parent.section.idSeen ? null : valueFrame(site -> {
+                        parent.section.id = site.text.trim();
+                        parent.section.idSeen = true;
+                    });
+                }
+                return sectionChild(parent, nameStart, nameEnd);
+            case PROFILES:
+                if (nameEquals(nameStart, nameEnd, "profile")) {
+                    Section profileSection = new Section("default");
+                    profileSections.add(profileSection);
+                    return new Frame(Kind.PROFILE).section(profileSection);
+                }
+                return null;
+            case PARENT:
+                if (nameEquals(nameStart, nameEnd, "version")) {
+                    return parent.section.parentVersion != null ? null : valueFrame(site -> parent.section.parentVersion = site);
+                }
+                return null;
+            case PROPERTIES: {
+                String propertyName = new String(pom, nameStart, nameEnd - nameStart, charset);
+                return valueFrame(site -> parent.section.properties.put(site, propertyName));
+            }
+            case DEPENDENCY_MANAGEMENT:
+                if (nameEquals(nameStart, nameEnd, "dependencies")) {
+                    return parent.section.managedDependencies != null ? null
+                            : new Frame(Kind.DEPENDENCIES).dependencies(parent.section.managedDependencies = new ArrayList<>());
+                }
+                return null;
+            case DEPENDENCIES: {
+                DependencySite dependency = new DependencySite();
+                parent.dependencies.add(dependency);
+                return new Frame(Kind.DEPENDENCY).dependency(dependency);
+            }
+            case DEPENDENCY:
+                if (nameEquals(nameStart, nameEnd, "version")) {
+                    return parent.dependency.version != null ? null : valueFrame(site -> parent.dependency.version = site);
+                }
+                return coordinateChild(parent.dependency.coordinates, nameStart, nameEnd,
+                        "groupId", "artifactId", "type", "classifier");
+            case BUILD:
+                if (nameEquals(nameStart, nameEnd, "plugins")) {
+                    return parent.section.plugins != null ? null
+                            : new Frame(Kind.PLUGINS).plugins(parent.section.plugins = new ArrayList<>());
+                }
+                if (nameEquals(nameStart, nameEnd, "pluginManagement")) {
+                    return parent.section.pluginManagementSeen ? null : new Frame(Kind.PLUGIN_MANAGEMENT).section(parent.section);
+                }
+                return null;
+            case PLUGIN_MANAGEMENT:
+                if (nameEquals(nameStart, nameEnd, "plugins")) {
+                    return parent.section.managedPlugins != null ? null
+                            : new Frame(Kind.PLUGINS).plugins(parent.section.managedPlugins = new ArrayList<>());
+                }
+                return null;
+            case REPORTING:
+                if (nameEquals(nameStart, nameEnd, "plugins")) {
+                    return parent.section.reportPlugins != null ? null
+                            : new Frame(Kind.PLUGINS).plugins(parent.section.reportPlugins = new ArrayList<>());
+                }
+                return null;
+            case PLUGINS: {
+                PluginSite plugin = new PluginSite();
+                parent.plugins.add(plugin);
+                return new Frame(Kind.PLUGIN).plugin(plugin);
+            }
+            case PLUGIN:
+                if (nameEquals(nameStart, nameEnd, "dependencies")) {
+                    return parent.plugin.dependencies != null ? null
+                            : new Frame(Kind.DEPENDENCIES).dependencies(parent.plugin.dependencies = new ArrayList<>());
+                }
+                if (nameEquals(nameStart, nameEnd, "version")) {
+                    return parent.plugin.version != null ? null : valueFrame(site -> parent.plugin.version = site);
+                }
+                return coordinateChild(parent.plugin.coordinates, nameStart, nameEnd,
+                        "groupId", "artifactId");
+            default:
+                return null;
+        }
+    }
+
+    private Frame sectionChild(Frame parent, int nameStart, int nameEnd) {
+        Section section = parent.section;
+        if (nameEquals(nameStart, nameEnd, "properties")) {
+            return section.propertiesSeen ? null : new Frame(Kind.PROPERTIES).section(section);
+        }
+        if (nameEquals(nameStart, nameEnd, "dependencies")) {
+            return section.dependencies != null ? null
+                    : new Frame(Kind.DEPENDENCIES).dependencies(section.dependencies = new ArrayList<>());
+        }
+        if (nameEquals(nameStart, nameEnd, "dependencyManagement")) {
+            return section.dependencyManagementSeen ? null : new Frame(Kind.DEPENDENCY_MANAGEMENT).section(section);
+        }
+        if (nameEquals(nameStart, nameEnd, "build")) {
+            return section.buildSeen ? null : new Frame(Kind.BUILD).section(section);
+        }
+        if (nameEquals(nameStart, nameEnd, "reporting")) {
+            return section.reportingSeen ? null : new Frame(Kind.REPORTING).section(section);
+        }
+        return null;
+    }
+
+    private Frame coordinateChild(Map<String, String> coordinates, int nameStart, int nameEnd, String... coordinateNames) {
+        for (String coordinateName : coordinateNames) {
+            if (nameEquals(nameStart, nameEnd, coordinateName)) {
+                return coordinates.containsKey(coordinateName) ? null
+                        : valueFrame(site -> coordinates.put(coordinateName, site.text.trim()));
+            }
+        }
+        return null;
+    }
+
+    private static Frame valueFrame(Consumer<Site> siteConsumer) {
+        Frame frame = new Frame(Kind.VALUE);
+        frame.siteConsumer = siteConsumer;
+        return frame;
+    }
+
+    private void finish(Frame frame) {
+        switch (frame.kind) {
+            case VALUE:
+                frame.siteConsumer.accept(new Site(frame));
+                break;
+            case PARENT:
+                frame.section.parentSeen = true;
+                break;
+            case PROPERTIES:
+                frame.section.propertiesSeen = true;
+                break;
+            case PROFILES:
+                frame.section.profilesSeen = true;
+                break;
+            case DEPENDENCY_MANAGEMENT:
+                frame.section.dependencyManagementSeen = true;
+                break;
+            case BUILD:
+                frame.section.buildSeen = true;
+                break;
+            case PLUGIN_MANAGEMENT:
+                frame.section.pluginManagementSeen = true;
+                break;
+            case REPORTING:
+                frame.section.reportingSeen = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    // ---- resolve edits ----------------------------------------------------------------------------------------------
+
+    private List<Edit> resolveEdits(Model model) {
+        final List<Edit> edits = new ArrayList<>();
+
+        if (projectSection.parentVersion != null && model.getParent() != null) {
+            setText(edits, projectSection.parentVersion, model.getParent().getVersion());
+        }
+        if (projectSection.version != null) {
+            setText(edits, projectSection.version, model.getVersion());
+        }
+        resolveSectionEdits(edits, projectSection, model, model.getBuild(), model.getReporting());
+
+        if (!profileSections.isEmpty()) {
+            Map<String, Profile> profileMap = model.getProfiles().stream()
+                    .collect(toMap(Profile::getId, it -> it));
+            for (Section profileSection : profileSections) {
+                Profile profile = profileMap.get(profileSection.id);
+                if (profile == null) {
+                    throw new IllegalArgumentException("Unexpected profile " + profileSection.id);
+                }
+                resolveSectionEdits(edits, profileSection, profile, profile.getBuild(), profile.getReporting());
+            }
+        }
+
+        edits.sort(Comparator.comparingInt(edit -> edit.start));
+        return edits;
+    }
+
+    private void resolveSectionEdits(List<Edit> edits, Section section, ModelBase model, BuildBase build, Reporting reporting) {
+        // properties section
+        section.properties.forEach((propertySite, propertyName) -> {
+            String modelPropertyValue = model.getProperties().getProperty(propertyName);
+            if (modelPropertyValue != null) {
+                setText(edits, propertySite, modelPropertyValue);
+            }
+        });
+
+        // dependencies section
+        if (section.dependencies != null) {
+            resolveDependencyEdits(edits, section.dependencies, model.getDependencies());
+        }
+        // dependencyManagement section
+        if (section.managedDependencies != null) {
+            resolveDependencyEdits(edits, section.managedDependencies, model.getDependencyManagement().getDependencies());
+        }
+
+        // build plugins section
+        if (section.plugins != null) {
+            resolvePluginEdits(edits, section.plugins, build.getPlugins());
+        }
+        // build pluginManagement section
+        if (section.managedPlugins != null) {
+            resolvePluginEdits(edits, section.managedPlugins, build.getPluginManagement().getPlugins());
+        }
+        // reporting plugins section
+        if (section.reportPlugins != null) {
+            GitVersioningModelProcessor.forEachPair(section.reportPlugins, reporting.getPlugins(), (pluginSite, plugin) -> {
+                // sanity check
+                if (!Objects.equals(plugin.getKey(), pluginSite.getKey())) {
+                    throw new IllegalArgumentException("Unexpected difference of xml and model report plugin order");
+                }
+                setText(edits, pluginSite.version, plugin.getVersion());
+            });
+        }
+    }
+
+    private void resolveDependencyEdits(List<Edit> edits, List<DependencySite> dependencySites, List<Dependency> dependencies) {
+        GitVersioningModelProcessor.forEachPair(dependencySites, dependencies, (dependencySite, dependency) -> {
+            // sanity check
+            if (!Objects.equals(dependency.getManagementKey(), dependencySite.getManagementKey())) {
+                throw new IllegalArgumentException("Unexpected difference of xml and model dependencies order");
+            }
+            setText(edits, dependencySite.version, dependency.getVersion());
+        });
+    }
+
+    private void resolvePluginEdits(List<Edit> edits, List<PluginSite> pluginSites, List<Plugin> plugins) {
+        GitVersioningModelProcessor.forEachPair(pluginSites, plugins, (pluginSite, plugin) -> {
+            // sanity check
+            if (!Objects.equals(plugin.getKey(), pluginSite.getKey())) {
+                throw new IllegalArgumentException("Unexpected difference of xml and model plugin order");
+            }
+            setText(edits, pluginSite.version, plugin.getVersion());
+
+            List<Dependency> dependencies = plugin.getDependencies();
+            if (!dependencies.isEmpty() && pluginSite.dependencies != null) {
+                resolveDependencyEdits(edits, pluginSite.dependencies, dependencies);
+            }
+        });
+    }
+
+    private void setText(List<Edit> edits, Site site, String text) {
+        if (site == null || text == null || text.equals(site.text)) {
+            return;
+        }
+        String escapedText = escapeText(text);
+        if (site.selfClosing) {
+            edits.add(new Edit(site.tagStart, site.tagEnd,
+                    ("<" + site.tagName + ">" + escapedText + "</" + site.tagName + ">").getBytes(charset)));
+        } else {
+            edits.add(new Edit(site.contentStart, site.contentEnd, escapedText.getBytes(charset)));
+        }
+    }
+
+    private byte[] apply(List<Edit> edits) {
+        if (edits.isEmpty()) {
+            return pom;
+        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream(pom.length + 64 * edits.size());
+        int copyStart = 0;
+        for (Edit edit : edits) {
+            result.write(pom, copyStart, edit.start - copyStart);
+            result.write(edit.replacement, 0, edit.replacement.length);
+            copyStart = edit.end;
+        }
+        result.write(pom, copyStart, pom.length - copyStart);
+        return result.toByteArray();
+    }
+
+    // ---- utils ------------------------------------------------------------------------------------------------------
+
+    private static Charset charset(byte[] pom) throws IOException {
+        // only look at xml declaration
+        String head = new String(pom, 0, Math.min(pom.length, 256), ISO_8859_1);
+        Matcher encodingMatcher = XML_DECLARATION_ENCODING.matcher(head);
+        if (!encodingMatcher.find()) {
+            return UTF_8;
+        }
+        Charset charset;
+        try {
+            charset = Charset.forName(encodingMatcher.group("encoding"));
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new IOException("Unsupported pom encoding " + encodingMatcher.group("encoding"), e);
+        }
+        // markup is scanned byte by byte, so encoding needs to be ascii compatible
+        if (!new String("<>/?!\"'=".getBytes(charset), US_ASCII).equals("<>/?!\"'=")) {
+            throw new IOException("Unsupported pom encoding " + charset);
+        }
+        return charset;
+    }
+
+    private boolean startsWith(String prefix, int offset) {
+        if (offset + prefix.length() > pom.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (pom[offset + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(String token, int fromIndex, boolean required) throws IOException {
+        for (int i = fromIndex; i <= pom.length - token.length(); i++) {
+            if (pom[i] == token.charAt(0) && startsWith(token, i)) {
+                return i;
+            }
+        }
+        if (required) {
+            throw new IOException("Unexpected end of pom content, missing '" + token + "' after position " + fromIndex);
+        }
+        return pom.length;
+    }
+
+    private boolean nameEquals(int nameStart, int nameEnd, String name) {
+        return nameEnd - nameStart == name.length() && startsWith(name, nameStart);
+    }
+
+    private static boolean isNameEnd(byte b) {
+        return b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    static String decodeEntities(String text) {
+        int ampersandIndex = text.indexOf('&');
+        if (ampersandIndex < 0) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        int copyStart = 0;
+        while (ampersandIndex >= 0) {
+            int semicolonIndex = text.indexOf(';', ampersandIndex);
+            if (semicolonIndex < 0) {
+                break;
+            }
+            String entity = text.substring(ampersandIndex + 1, semicolonIndex);
+            String replacement = decodeEntity(entity);
+            if (replacement != null) {
+                result.append(text, copyStart, ampersandIndex).append(replacement);
+                copyStart = semicolonIndex + 1;
+            }
+            ampersandIndex = text.indexOf('&', ampersandIndex + 1);
+        }
+        return result.append(text, copyStart, text.length()).toString();
+    }
+
+    private static String decodeEntity(String entity) {
+        switch (entity) {
+            case "lt":
+                return "<";
+            case "gt":
+                return ">";
+            case "amp":
+                return "&";
+            case "quot":
+                return "\"";
+            case "apos":
+                return "'";
+            default:
+                try {
+                    if (entity.startsWith("#x")) {
+                        return new String(Character.toChars(Integer.parseInt(entity.substring(2), 16)));
+                    }
+                    if (entity.startsWith("#")) {
+                        return new String(Character.toChars(Integer.parseInt(entity.substring(1))));
+                    }
+                } catch (IllegalArgumentException e) {
+                    // keep invalid character references as is
+                }
+                // keep custom entities as is
+                return null;
+        }
+    }
+
+    static String escapeText(String text) {
+        return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;");
+    }
+
+    // ---- types ------------------------------------------------------------------------------------------------------
+
+    private static final class Frame {
+        final Kind kind;
+        Section section;
+        List<DependencySite> dependencies;
+        DependencySite dependency;
+        List<PluginSite> plugins;
+        PluginSite plugin;
+        Consumer<Site> siteConsumer;
+
+        int tagStart;
+        int contentStart;
+        int contentEnd;
+        int tagEnd;
+        boolean selfClosing;
+        String tagName;
+        StringBuilder text;
+
+        Frame(Kind kind) {
+            this.kind = kind;
+        }
+
+        Frame section(Section section) {
+            this.section = section;
+            return this;
+        }
+
+        Frame dependencies(List<DependencySite> dependencies) {
+            this.dependencies = dependencies;
+            return this;
+        }
+
+        Frame dependency(DependencySite dependency) {
+            this.dependency = dependency;
+            return this;
+        }
+
+        Frame plugins(List<PluginSite> plugins) {
+            this.plugins = plugins;
+            return this;
+        }
+
+        Frame plugin(PluginSite plugin) {
+            this.plugin = plugin;
+            return this;
+        }
+    }
+
+    /**
+     * Location and text of a value element within the pom content
+     */
+    private static final class Site {
+        final int tagStart;
+        final int contentStart;
+        final int contentEnd;
+        final int tagEnd;
+        final boolean selfClosing;
+        final String tagName;
+        final String text;
+
+        Site(Frame frame) {
+            this.tagStart = frame.tagStart;
+            this.contentStart = frame.contentStart;
+            this.contentEnd = frame.contentEnd;
+            this.tagEnd = frame.tagEnd;
+            this.selfClosing = frame.selfClosing;
+            this.tagName = frame.tagName;
+            this.text = frame.text != null ? frame.text.toString() : "";
+        }
+    }
+
+    /**
+     * Project or profile section
+     */
+    private static final class Section {
+        String id;
+        boolean idSeen;
+        boolean parentSeen;
+        boolean propertiesSeen;
+        boolean profilesSeen;
+        boolean dependencyManagementSeen;
+        boolean buildSeen;
+        boolean pluginManagementSeen;
+        boolean reportingSeen;
+
+        Site parentVersion;
+        Site version;
+        final Map<Site, String> properties = new LinkedHashMap<>();
+        List<DependencySite> dependencies;
+        List<DependencySite> managedDependencies;
+        List<PluginSite> plugins;
+        List<PluginSite> managedPlugins;
+        List<PluginSite> reportPlugins;
+
+        Section(String id) {
+            this.id = id;
+        }
+    }
+
+    private static final class DependencySite {
+        final Map<String, String> coordinates = new HashMap<>(4);
+        Site version;
+
+        String getManagementKey() {
+            return coordinates.getOrDefault("groupId", "")
+                    + ":" + coordinates.getOrDefault("artifactId", "")
+                    + ":" + coordinates.getOrDefault("type", "jar")
+                    + (coordinates.containsKey("classifier") ? ":" + coordinates.get("classifier") : "");
+        }
+    }
+
+    private static final class PluginSite {
+        final Map<String, String> coordinates = new HashMap<>(2);
+        Site version;
+        List<DependencySite> dependencies;
+
+        String getKey() {
+            return coordinates.getOrDefault("groupId", "org.apache.maven.plugins")
+                    + ":" + coordinates.getOrDefault("artifactId", "");
+        }
+    }
+
+    private static final class Edit {
+        final int start;
+        final int end;
+        final byte[] replacement;
+
+        Edit(int start, int end, byte[] replacement) {
+            this.start = start;
+            this.end = end;
+            this.replacement = replacement;
+        }
+    }
+}
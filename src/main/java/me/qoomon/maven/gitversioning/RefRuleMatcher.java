@@ -0,0 +1,239 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.GitRefType;
+import me.qoomon.gitversioning.commons.GitSituation;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescriptionList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static java.lang.Math.min;
+import static java.util.Collections.emptyList;
+import static me.qoomon.gitversioning.commons.GitRefType.BRANCH;
+import static me.qoomon.gitversioning.commons.GitRefType.TAG;
+
+/**
+ * Matches branch and tag names against all ref configurations at once.
+ * <p>
+ * Patterns of each ref type are combined into one alternation of capturing groups,
+ * so each ref name is matched by a single regex evaluation.
+ * The first matching alternative corresponds to the first matching ref configuration,
+ * so the first matching ref configuration of all types wins like before.
+ * Falls back to matching patterns one by one, if they can not be combined e.g. due to numeric back references.
+ * <p>
+ * Invalid ref configurations e.g. invalid patterns fail only if they are reached, same as with sequential evaluation.
+ */
+final class RefRuleMatcher {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static final String MATCH_ALL = "(?s:.*)";
+
+    // numeric back references would refer to other groups within the combined pattern
+    private static final Pattern NUMERIC_BACK_REFERENCE = Pattern.compile("\\\\[1-9]");
+
+    private final List<RefPatchDescription> refs;
+    private final boolean considerTagsOnBranches;
+
+    private final TypeMatcher branchMatcher;
+    private final TypeMatcher tagMatcher;
+    private final List<Failure> failures = new ArrayList<>();
+
+    RefRuleMatcher(RefPatchDescriptionList refConfigs) {
+        this.refs = new ArrayList<>(refConfigs.list);
+        this.considerTagsOnBranches = refConfigs.considerTagsOnBranches != null && refConfigs.considerTagsOnBranches;
+
+        List<Integer> branchRules = new ArrayList<>();
+        List<Pattern> branchPatterns = new ArrayList<>();
+        List<Integer> tagRules = new ArrayList<>();
+        List<Pattern> tagPatterns = new ArrayList<>();
+        for (int ruleIndex = 0; ruleIndex < refs.size(); ruleIndex++) {
+            RefPatchDescription refConfig = refs.get(ruleIndex);
+            if (refConfig.type != BRANCH && refConfig.type != TAG) {
+                failures.add(new Failure(ruleIndex, null, new IllegalArgumentException("Unexpected ref type: " + refConfig.type)));
+                continue;
+            }
+            Pattern pattern;
+            try {
+                pattern = refConfig.pattern != null ? refConfig.pattern() : Pattern.compile(MATCH_ALL);
+            } catch (PatternSyntaxException e) {
+                failures.add(new Failure(ruleIndex, refConfig.type, e));
+                continue;
+            }
+            if (refConfig.type == BRANCH) {
+                branchRules.add(ruleIndex);
+                branchPatterns.add(pattern);
+            } else {
+                tagRules.add(ruleIndex);
+                tagPatterns.add(pattern);
+            }
+        }
+        this.branchMatcher = new TypeMatcher(branchRules, branchPatterns);
+        this.tagMatcher = new TypeMatcher(tagRules, tagPatterns);
+    }
+
+    /**
+     * @param gitSituation git situation, tags are only requested if a tag ref configuration could match
+     * @return version details of first matching ref configuration or null
+     */
+    GitVersionDetails match(GitSituation gitSituation) {
+        final boolean detached = gitSituation.isDetached();
+
+        String branch = null;
+        int branchRule = NO_MATCH;
+        if (!detached) {
+            branch = gitSituation.getBranch();
+            branchRule = branchMatcher.match(branch);
+        }
+
+        List<String> tags = null;
+        String tag = null;
+        int tagRule = NO_MATCH;
+        if ((detached || considerTagsOnBranches)
+                && (tagMatcher.firstRule < branchRule || firstFailure(TAG) < branchRule)) {
+            tags = gitSituation.getTags();
+            for (String candidateTag : tags) {
+                int candidateRule = tagMatcher.match(candidateTag);
+                // keep first tag of the first matching rule
+                if (candidateRule < tagRule) {
+                    tagRule = candidateRule;
+                    tag = candidateTag;
+                }
+            }
+        }
+
+        final int matchingRule = min(branchRule, tagRule);
+        for (Failure failure : failures) {
+            if (failure.ruleIndex > matchingRule) {
+                break;
+            }
+            if (failure.isReached(detached, tags != null ? tags : emptyList())) {
+                throw failure.exception;
+            }
+        }
+
+        if (matchingRule == NO_MATCH) {
+            return null;
+        }
+        if (matchingRule == branchRule) {
+            return new GitVersionDetails(gitSituation.getRev(), BRANCH, branch, refs.get(branchRule));
+        }
+        return new GitVersionDetails(gitSituation.getRev(), TAG, tag, refs.get(tagRule));
+    }
+
+    private int firstFailure(GitRefType type) {
+        return failures.stream()
+                .filter(failure -> failure.type == type)
+                .mapToInt(failure -> failure.ruleIndex)
+                .findFirst().orElse(NO_MATCH);
+    }
+
+    /**
+     * Matches ref names against all patterns of one ref type.
+     */
+    private static final class TypeMatcher {
+
+        private final int[] rules;
+        private final List<Pattern> patterns;
+        private final int firstRule;
+
+        // null if patterns can not be combined
+        private final Pattern combinedPattern;
+        private final int[] groups;
+
+        TypeMatcher(List<Integer> rules, List<Pattern> patterns) {
+            this.rules = rules.stream().mapToInt(Integer::intValue).toArray();
+            this.patterns = patterns;
+            this.firstRule = this.rules.length > 0 ? this.rules[0] : NO_MATCH;
+
+            this.groups = new int[patterns.size()];
+            this.combinedPattern = patterns.size() > 1 ? combine(patterns, groups) : null;
+        }
+
+        private static Pattern combine(List<Pattern> patterns, int[] groups) {
+            StringBuilder combinedRegex = new StringBuilder();
+            int groupCount = 0;
+            for (int i = 0; i < patterns.size(); i++) {
+                Pattern pattern = patterns.get(i);
+                if (pattern.flags() != 0 || NUMERIC_BACK_REFERENCE.matcher(pattern.pattern()).find()) {
+                    return null;
+                }
+                if (i > 0) {
+                    combinedRegex.append('|');
+                }
+                combinedRegex.append('(').append(pattern.pattern()).append(')');
+                groups[i] = ++groupCount;
+                groupCount += pattern.matcher("").groupCount();
+            }
+
+            Pattern combinedPattern;
+            try {
+                combinedPattern = Pattern.compile(combinedRegex.toString());
+            } catch (PatternSyntaxException e) {
+                // e.g. duplicate group names
+                return null;
+            }
+            // e.g. unterminated quotes or comments would swallow group boundaries
+            if (combinedPattern.matcher("").groupCount() != groupCount) {
+                return null;
+            }
+            return combinedPattern;
+        }
+
+        /**
+         * @return index of first matching rule or {@link #NO_MATCH}
+         */
+        int match(String name) {
+            if (combinedPattern != null) {
+                Matcher matcher = combinedPattern.matcher(name);
+                if (matcher.matches()) {
+                    for (int i = 0; i < groups.length; i++) {
+                        if (matcher.start(groups[i]) != -1) {
+                            return rules[i];
+                        }
+                    }
+                }
+                return NO_MATCH;
+            }
+
+            for (int i = 0; i < patterns.size(); i++) {
+                if (patterns.get(i).matcher(name).matches()) {
+                    return rules[i];
+                }
+            }
+            return NO_MATCH;
+        }
+    }
+
+    /**
+     * Invalid ref configuration, that fails as soon as it is reached.
+     */
+    private static final class Failure {
+
+        private final int ruleIndex;
+        // null if ref configuration fails regardless of the ref type
+        private final GitRefType type;
+        private final RuntimeException exception;
+
+        Failure(int ruleIndex, GitRefType type, RuntimeException exception) {
+            this.ruleIndex = ruleIndex;
+            this.type = type;
+            this.exception = exception;
+        }
+
+        boolean isReached(boolean detached, List<String> tags) {
+            if (type == BRANCH) {
+                return !detached;
+            }
+            if (type == TAG) {
+                // tag patterns are only evaluated against existing tags
+                return !tags.isEmpty();
+            }
+            return true;
+        }
+    }
+}
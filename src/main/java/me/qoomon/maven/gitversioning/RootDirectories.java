@@ -0,0 +1,94 @@
+package me.qoomon.maven.gitversioning;
+
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Closest <code>.mvn</code> directory and git directory of a project directory, found within one upward traversal.
+ * <p>
+ * Results are cached per project directory for the lifetime of the JVM,
+ * so following sessions e.g. within a maven daemon (mvnd) skip the traversal.
+ * Cached results are only reused if both found directories still exist.
+ */
+final class RootDirectories {
+
+    private static final Map<File, RootDirectories> CACHE = new ConcurrentHashMap<>();
+
+    private final File mvnDirectory;
+    private final File gitDirectory;
+
+    private RootDirectories(File mvnDirectory, File gitDirectory) {
+        this.mvnDirectory = mvnDirectory;
+        this.gitDirectory = gitDirectory;
+    }
+
+    /**
+     * @param projectDirectory project directory
+     * @return root directories of <code>projectDirectory</code>
+     */
+    static RootDirectories of(File projectDirectory) {
+        File absoluteProjectDirectory = projectDirectory.getAbsoluteFile();
+        RootDirectories rootDirectories = CACHE.get(absoluteProjectDirectory);
+        if (rootDirectories != null && rootDirectories.exist()) {
+            return rootDirectories;
+        }
+
+        rootDirectories = search(absoluteProjectDirectory);
+        CACHE.put(absoluteProjectDirectory, rootDirectories);
+        return rootDirectories;
+    }
+
+    private static RootDirectories search(File projectDirectory) {
+        File mvnDirectory = null;
+        File gitDirectory = null;
+        File searchDirectory = projectDirectory;
+        while (searchDirectory != null && (mvnDirectory == null || gitDirectory == null)) {
+            if (mvnDirectory == null) {
+                File mvnDir = new File(searchDirectory, ".mvn");
+                if (mvnDir.exists()) {
+                    mvnDirectory = mvnDir;
+                }
+            }
+            if (gitDirectory == null) {
+                gitDirectory = findGitDir(searchDirectory);
+            }
+            searchDirectory = searchDirectory.getParentFile();
+        }
+        return new RootDirectories(mvnDirectory, gitDirectory);
+    }
+
+    /**
+     * @return git directory of <code>directory</code> itself, not considering parent directories
+     * @see FileRepositoryBuilder#findGitDir(File)
+     */
+    private static File findGitDir(File directory) {
+        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder();
+        if (directory.getParentFile() != null) {
+            // stop search at parent directory
+            repositoryBuilder.addCeilingDirectory(directory.getParentFile());
+        }
+        return repositoryBuilder.findGitDir(directory).getGitDir();
+    }
+
+    private boolean exist() {
+        return mvnDirectory != null && mvnDirectory.exists()
+                && gitDirectory != null && gitDirectory.exists();
+    }
+
+    /**
+     * @return closest <code>.mvn</code> directory or null
+     */
+    File getMvnDirectory() {
+        return mvnDirectory;
+    }
+
+    /**
+     * @return closest git directory or null
+     */
+    File getGitDirectory() {
+        return gitDirectory;
+    }
+}
@@ -0,0 +1,78 @@
+package me.qoomon.maven.gitversioning;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of extension phases, see {@link GitVersioningModelProcessor}.
+ * <p>
+ * Event attributes are only computed if {@link Event#shouldCommit()} is true, so events cost nothing while recording is off.
+ */
+final class VersioningEvents {
+
+    private static final String CATEGORY = "Maven Git Versioning";
+
+    private VersioningEvents() {
+    }
+
+    @Name("me.qoomon.gitversioning.Init")
+    @Label("Extension Init")
+    @Description("Read of configuration and git situation and determination of version details")
+    @Category({CATEGORY, "Extension"})
+    @StackTrace(false)
+    static final class Init extends Event {
+
+        @Label("Project Pom")
+        String projectPom;
+
+        @Label("Disabled")
+        boolean disabled;
+
+        @Label("Ref")
+        String ref;
+
+        @Label("Related Project Count")
+        int relatedProjectCount;
+    }
+
+    @Name("me.qoomon.gitversioning.ProcessModel")
+    @Label("Process Project Model")
+    @Description("Update of a project model with git versions")
+    @Category({CATEGORY, "Extension"})
+    @StackTrace(false)
+    static final class ProcessModel extends Event {
+
+        @Label("Module Path")
+        String modulePath;
+
+        @Label("Version")
+        String version;
+
+        @Label("Cache Hit")
+        @Description("Project model has already been processed within this session")
+        boolean cacheHit;
+    }
+
+    @Name("me.qoomon.gitversioning.PomWrite")
+    @Label("Write Git Versioned Pom")
+    @Category({CATEGORY, "Extension"})
+    @StackTrace(false)
+    static final class PomWrite extends Event {
+
+        @Label("Module Path")
+        String modulePath;
+
+        @Label("Cache Hit")
+        @Description("Git versioned pom file was up to date and has not been written")
+        boolean cacheHit;
+
+        @Label("Size")
+        @DataAmount
+        long size;
+    }
+}
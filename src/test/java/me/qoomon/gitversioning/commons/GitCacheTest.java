@@ -0,0 +1,144 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+
+class GitCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void repository() throws Exception {
+        // GIVEN
+        Git git = new SyntheticRepository().create(tempDir.toFile());
+        GitCache cache = new GitCache();
+
+        // WHEN
+        Repository repository = cache.repository(git.getRepository().getDirectory());
+        Repository cachedRepository = cache.repository(git.getRepository().getDirectory());
+
+        // THEN
+        assertThat(cachedRepository).isSameAs(repository);
+    }
+
+    @Test
+    void describe() throws Exception {
+        // GIVEN
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .create(tempDir.toFile());
+        ObjectId head = git.getRepository().resolve(HEAD);
+        GitCache cache = new GitCache();
+        cache.describe(head, Pattern.compile("v.+"), git.getRepository(), true, new Metrics());
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        GitDescription description = cache.describe(head, Pattern.compile("v.+"), git.getRepository(), true, metrics);
+
+        // THEN
+        assertThat(description.getTag()).isEqualTo(SyntheticRepository.tagName(9));
+        assertThat(description.getDistance()).isEqualTo(9);
+        assertThat(metrics.counter("git.cache.tags.hits").getValue()).isEqualTo(1);
+        assertThat(metrics.counter("git.cache.describe.hits").getValue()).isEqualTo(1);
+        assertThat(metrics.counter("git.describe.commits").getValue()).isZero();
+    }
+
+    @Test
+    void describe_tagsChanged() throws Exception {
+        // GIVEN
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .create(tempDir.toFile());
+        ObjectId head = git.getRepository().resolve(HEAD);
+        GitCache cache = new GitCache();
+        cache.describe(head, Pattern.compile("v.+"), git.getRepository(), true, new Metrics());
+        git.tag().setName("v2.0.0").setAnnotated(false).call();
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        GitDescription description = cache.describe(head, Pattern.compile("v.+"), git.getRepository(), true, metrics);
+
+        // THEN
+        assertThat(description.getTag()).isEqualTo("v2.0.0");
+        assertThat(description.getDistance()).isZero();
+        assertThat(metrics.counter("git.cache.tags.hits").getValue()).isZero();
+        assertThat(metrics.counter("git.cache.describe.hits").getValue()).isZero();
+    }
+
+    @Test
+    void describe_evictsLeastRecentlyUsed() throws Exception {
+        // GIVEN
+        Git git = new SyntheticRepository()
+                .historyDepth(GitCache.MAX_DESCRIPTIONS + 10)
+                .tagCount(1)
+                .create(tempDir.toFile());
+        GitCache cache = new GitCache();
+        ObjectId head = git.getRepository().resolve(HEAD);
+        cache.describe(head, Pattern.compile("v.+"), git.getRepository(), true, new Metrics());
+        // head moves on, while tags stay the same
+        for (int i = 1; i <= GitCache.MAX_DESCRIPTIONS; i++) {
+            cache.describe(git.getRepository().resolve(HEAD + "~" + i), Pattern.compile("v.+"), git.getRepository(), true, new Metrics());
+        }
+        ObjectId latest = git.getRepository().resolve(HEAD + "~" + GitCache.MAX_DESCRIPTIONS);
+
+        // WHEN
+        Metrics latestMetrics = new Metrics();
+        cache.describe(latest, Pattern.compile("v.+"), git.getRepository(), true, latestMetrics);
+        Metrics evictedMetrics = new Metrics();
+        cache.describe(head, Pattern.compile("v.+"), git.getRepository(), true, evictedMetrics);
+
+        // THEN
+        assertThat(latestMetrics.counter("git.cache.describe.hits").getValue()).isEqualTo(1);
+        assertThat(evictedMetrics.counter("git.cache.describe.hits").getValue()).isZero();
+    }
+
+    @Test
+    void commitGraph() throws Exception {
+        // GIVEN
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .create(tempDir.toFile());
+        GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+        GitCache cache = new GitCache();
+
+        // WHEN
+        CommitGraphFile commitGraph = cache.commitGraph(git.getRepository(), true);
+        CommitGraphFile cachedCommitGraph = cache.commitGraph(git.getRepository(), true);
+
+        // THEN
+        assertThat(commitGraph.commitCount()).isEqualTo(10);
+        assertThat(cachedCommitGraph).isSameAs(commitGraph);
+    }
+
+    @Test
+    void commitGraph_fileChanged() throws Exception {
+        // GIVEN
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .create(tempDir.toFile());
+        GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+        GitCache cache = new GitCache();
+        CommitGraphFile commitGraph = cache.commitGraph(git.getRepository(), true);
+        git.commit().setMessage("commit after commit-graph").setAllowEmpty(true).call();
+        GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+
+        // WHEN
+        CommitGraphFile changedCommitGraph = cache.commitGraph(git.getRepository(), true);
+
+        // THEN
+        assertThat(changedCommitGraph).isNotSameAs(commitGraph);
+        assertThat(changedCommitGraph.commitCount()).isEqualTo(11);
+    }
+}
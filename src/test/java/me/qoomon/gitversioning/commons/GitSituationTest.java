@@ -1,16 +1,25 @@
 package me.qoomon.gitversioning.commons;
 
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 import static me.qoomon.gitversioning.commons.GitUtil.NO_COMMIT;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import static org.eclipse.jgit.lib.Constants.MASTER;
 
@@ -202,4 +211,150 @@ class GitSituationTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void moduleRev() throws Exception {
+
+        // given
+        Git git = Git.init().setInitialBranch("master").setDirectory(tempDir.toFile()).call();
+        Files.createDirectories(tempDir.resolve("api"));
+        Files.writeString(tempDir.resolve("api/pom.xml"), "api");
+        git.add().addFilepattern(".").call();
+        RevCommit givenApiCommit = git.commit().setMessage("api commit").call();
+        Files.writeString(tempDir.resolve("pom.xml"), "root");
+        git.add().addFilepattern(".").call();
+        RevCommit givenCommit = git.commit().setMessage("root commit").call();
+
+        GitSituation situation = new GitSituation(git.getRepository());
+        situation.setModulePaths(List.of("", "api"));
+
+        // then
+        assertThat(situation).satisfies(it -> assertSoftly(softly -> {
+            softly.assertThat(it.getModuleRev("api")).isEqualTo(givenApiCommit.getName());
+            softly.assertThat(it.getModuleTimestamp("api").toEpochSecond()).isEqualTo(givenApiCommit.getCommitTime());
+            softly.assertThat(it.getModuleRev("")).isEqualTo(givenCommit.getName());
+        }));
+    }
+
+    @Test
+    void namedDescriptions() throws Exception {
+
+        // given
+        Git git = Git.init().setInitialBranch("master").setDirectory(tempDir.toFile()).call();
+        git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("api-1.0").call();
+        git.commit().setMessage("release commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0").call();
+
+        Metrics metrics = new Metrics();
+        GitSituation situation = new GitSituation(git.getRepository(), metrics);
+        situation.setDescribeTagPattern(Pattern.compile("v.+"));
+        situation.setDescribeTagPatterns(Map.of("api", Pattern.compile("api-.+")));
+
+        // then
+        assertThat(situation).satisfies(it -> assertSoftly(softly -> {
+            softly.assertThat(it.getDescription().getTag()).isEqualTo("v1.0");
+            softly.assertThat(it.getDescription("api").getTag()).isEqualTo("api-1.0");
+            softly.assertThat(it.getDescription("api").getDistance()).isEqualTo(1);
+            // one shared walk
+            softly.assertThat(metrics.counter("git.describe.commits").getValue()).isEqualTo(2);
+        }));
+    }
+
+    @Test
+    void moduleDescription_allParents() throws Exception {
+
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        commit(git, "api/pom.xml", "api 1", 300);
+        RevCommit givenTaggedCommit = commit(git, "api/pom.xml", "api 2", 310);
+        git.tag().setName("v1.0").call();
+        // side branch commits are older than tagged commit ancestors, so they are walked last by commit time
+        git.checkout().setCreateBranch(true).setName("side").call();
+        commit(git, "core/pom.xml", "core 1", 1);
+        commit(git, "core/pom.xml", "core 2", 2);
+        git.checkout().setName(MASTER).call();
+        git.merge().include(git.getRepository().resolve("side")).setFastForward(MergeCommand.FastForwardMode.NO_FF).call();
+        git.commit().setAmend(true).setMessage("merge commit").setCommitter(ident(400)).call();
+
+        GitSituation situation = new GitSituation(git.getRepository());
+        situation.setFirstParent(false);
+        situation.setModulePaths(List.of("api", "core"));
+
+        // then
+        assertThat(situation).satisfies(it -> assertSoftly(softly -> {
+            softly.assertThat(it.getDescription().getDistance()).isEqualTo(3);
+            // like git rev-list v1.0..HEAD -- <module>
+            softly.assertThat(it.getModuleDescription("api").getDistance()).isEqualTo(0);
+            softly.assertThat(it.getModuleDescription("core").getDistance()).isEqualTo(3);
+            softly.assertThat(it.getModuleRev("api")).isEqualTo(givenTaggedCommit.getName());
+        }));
+    }
+
+    @Test
+    void moduleRev_allParents_independentOfDescribe() throws Exception {
+
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        commit(git, "api/pom.xml", "api 1", 100);
+        git.checkout().setCreateBranch(true).setName("side").call();
+        // reachable from HEAD only, but older than tagged commit
+        commit(git, "api/pom.xml", "api 2", 50);
+        git.checkout().setName(MASTER).call();
+        RevCommit givenTaggedCommit = commit(git, "api/pom.xml", "api 2", 300);
+        git.tag().setName("v1.0").call();
+        // merge commit does not touch api, both parents have the same content
+        git.merge().include(git.getRepository().resolve("side")).setFastForward(MergeCommand.FastForwardMode.NO_FF).call();
+        git.commit().setAmend(true).setMessage("merge commit").setCommitter(ident(400)).call();
+
+        GitSituation moduleRevFirst = new GitSituation(git.getRepository());
+        moduleRevFirst.setFirstParent(false);
+        moduleRevFirst.setModulePaths(List.of("api"));
+        String moduleRevBeforeDescribe = moduleRevFirst.getModuleRev("api");
+        moduleRevFirst.getDescription();
+
+        GitSituation describeFirst = new GitSituation(git.getRepository());
+        describeFirst.setFirstParent(false);
+        describeFirst.setModulePaths(List.of("api"));
+        describeFirst.getDescription();
+        describeFirst.getModuleDescription("api");
+        String moduleRevAfterDescribe = describeFirst.getModuleRev("api");
+
+        // then
+        assertThat(describeFirst).satisfies(it -> assertSoftly(softly -> {
+            softly.assertThat(moduleRevAfterDescribe).isEqualTo(moduleRevBeforeDescribe);
+            // most recent touching commit by commit time
+            softly.assertThat(moduleRevAfterDescribe).isEqualTo(givenTaggedCommit.getName());
+            softly.assertThat(moduleRevFirst.getModuleRev("api")).isEqualTo(moduleRevBeforeDescribe);
+            // like git rev-list v1.0..HEAD -- api
+            softly.assertThat(it.getModuleDescription("api").getDistance()).isEqualTo(1);
+        }));
+    }
+
+    @Test
+    void setDescribeMaxDepth_lessThanOne() throws Exception {
+
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        git.commit().setMessage("init").setAllowEmpty(true).call();
+        GitSituation situation = new GitSituation(git.getRepository());
+
+        // Then
+        assertThatThrownBy(() -> situation.setDescribeMaxDepth(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        situation.setDescribeMaxDepth(1);
+        assertThat(situation.getDescribeMaxDepth()).isEqualTo(1);
+    }
+
+    private static RevCommit commit(Git git, String path, String content, int epochSecond) throws Exception {
+        Path file = git.getRepository().getWorkTree().toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        git.add().addFilepattern(".").call();
+        return git.commit().setMessage(path).setCommitter(ident(epochSecond)).call();
+    }
+
+    private static PersonIdent ident(int epochSecond) {
+        return new PersonIdent("test", "test@example.com", Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+}
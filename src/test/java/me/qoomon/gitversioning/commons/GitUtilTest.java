@@ -1,12 +1,19 @@
 package me.qoomon.gitversioning.commons;
 
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -15,7 +22,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -205,10 +218,51 @@ class GitUtilTest {
         }
     }
 
+    @Test
+    void worktreesFix_getCommonRepository_shared() throws Exception {
+
+        // given
+        Git git = new SyntheticRepository().create(tempDir.resolve("main").toFile());
+
+        try (Repository worktreeRepository = SyntheticRepository.addWorktree(git.getRepository(), tempDir.resolve("feature").toFile(), "feature")) {
+
+            // when
+            Repository commonRepository = GitUtil.worktreesFix_getCommonRepository(worktreeRepository);
+
+            // then
+            assertThat(commonRepository.getDirectory()).isEqualTo(git.getRepository().getDirectory().getCanonicalFile());
+            // repeated calls must not open another repository
+            assertThat(GitUtil.worktreesFix_getCommonRepository(worktreeRepository)).isSameAs(commonRepository);
+        }
+    }
+
     private static ObjectId head(Git git) throws IOException {
         return git.getRepository().resolve(HEAD);
     }
 
+    private static PersonIdent ident(int epochSecond) {
+        return new PersonIdent("test", "test@example.com", Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+
+    /**
+     * @return number of commits reachable from <code>revObjectId</code>, but not from <code>baseObjectId</code>
+     */
+    private static int reachableCommitCount(Repository repository, ObjectId revObjectId, ObjectId baseObjectId) throws IOException {
+        Set<ObjectId> commits = new HashSet<>(ancestors(repository, revObjectId));
+        commits.removeAll(ancestors(repository, baseObjectId));
+        return commits.size();
+    }
+
+    private static Set<ObjectId> ancestors(Repository repository, ObjectId objectId) throws IOException {
+        Set<ObjectId> ancestors = new HashSet<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(objectId));
+            walk.forEach(commit -> ancestors.add(commit.copy()));
+        }
+        return ancestors;
+    }
+
+
     @Test
     void describe() throws Exception {
         // given
@@ -234,4 +288,505 @@ class GitUtilTest {
         });
     }
 
+    @Test
+    void describe_metrics() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .annotatedTags(true)
+                .create(tempDir.toFile());
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true, metrics);
+
+        // then
+        assertThat(description.getTag()).isEqualTo(SyntheticRepository.tagName(9));
+        assertThat(description.getDistance()).isEqualTo(9);
+        assertThat(metrics.counter("git.describe.commits").getValue()).isLessThanOrEqualTo(10);
+        assertThat(metrics.counter("git.tags.peeled").getValue()).isEqualTo(10);
+    }
+
+    @Test
+    void reverseTagRefMap_parsedTags() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit commit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        for (String tag : List.of("v1", "v2", "v3", "v4")) {
+            git.tag().setName(tag).setAnnotated(true).setObjectId(commit).call();
+        }
+        Metrics metrics = new Metrics();
+
+        // when
+        Map<ObjectId, List<String>> tagRefMap = GitUtil.reverseTagRefMap(git.getRepository(), metrics);
+
+        // then
+        assertThat(tagRefMap.get(commit)).hasSize(4);
+        // each tag object is counted once, regardless of the number of comparisons
+        assertThat(metrics.counter("git.tags.parsed").getValue()).isEqualTo(4);
+    }
+
+    @Test
+    void describe_maxDepth() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(1)
+                .create(tempDir.toFile());
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true, 10, metrics);
+
+        // then
+        assertThat(description.getTag()).isEqualTo("root");
+        assertThat(description.getDistance()).isEqualTo(10);
+        assertThat(description.isTruncated()).isTrue();
+        assertThat(metrics.counter("git.describe.commits").getValue()).isEqualTo(10);
+    }
+
+    @Test
+    void describe_maxDepth_tagWithinMaxDepth() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(1)
+                .create(tempDir.toFile());
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true, 100, new Metrics());
+
+        // then
+        assertThat(description.getTag()).isEqualTo(SyntheticRepository.tagName(0));
+        assertThat(description.getDistance()).isEqualTo(99);
+        assertThat(description.isTruncated()).isFalse();
+    }
+
+    @Test
+    void describe_maxDepth_noMatchingTag() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .create(tempDir.toFile());
+
+        // when
+        GitDescription truncatedDescription = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true, 99, new Metrics());
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true, 100, new Metrics());
+
+        // then
+        assertThat(truncatedDescription.getDistance()).isEqualTo(99);
+        assertThat(truncatedDescription.isTruncated()).isTrue();
+        assertThat(description.getDistance()).isEqualTo(100);
+        assertThat(description.isTruncated()).isFalse();
+    }
+
+    @Test
+    void describe_namedTagPatterns() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit apiCommit = git.commit().setMessage("api commit").setAllowEmpty(true).call();
+        git.tag().setName("api-1.0").setObjectId(apiCommit).call();
+        git.commit().setMessage("commit").setAllowEmpty(true).call();
+        RevCommit releaseCommit = git.commit().setMessage("release commit").setAllowEmpty(true).call();
+        git.tag().setName("v2.0").setObjectId(releaseCommit).call();
+        git.commit().setMessage("commit").setAllowEmpty(true).call();
+        Metrics metrics = new Metrics();
+
+        Map<String, Pattern> givenTagPatterns = new LinkedHashMap<>();
+        givenTagPatterns.put("release", Pattern.compile("v.+"));
+        givenTagPatterns.put("api", Pattern.compile("api-.+"));
+        givenTagPatterns.put("web", Pattern.compile("web-.+"));
+
+        // when
+        Map<String, GitDescription> descriptions = GitUtil.describe(head(git), givenTagPatterns, git.getRepository(), true, Integer.MAX_VALUE, metrics);
+
+        // then
+        assertThat(descriptions).containsOnlyKeys("release", "api", "web");
+        assertThat(descriptions.get("release")).satisfies(it -> {
+            assertThat(it.getTag()).isEqualTo("v2.0");
+            assertThat(it.getDistance()).isEqualTo(1);
+        });
+        assertThat(descriptions.get("api")).satisfies(it -> {
+            assertThat(it.getTag()).isEqualTo("api-1.0");
+            assertThat(it.getDistance()).isEqualTo(3);
+        });
+        assertThat(descriptions.get("web")).satisfies(it -> {
+            assertThat(it.getTag()).isEqualTo("root");
+            assertThat(it.getDistance()).isEqualTo(4);
+        });
+        // one shared walk for release and api, stopped at the api tag, and one count for web without any tag
+        assertThat(metrics.counter("git.describe.commits").getValue()).isEqualTo(4 + 4);
+    }
+
+    @Test
+    void describe_namedTagPatterns_sharedWalk() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .create(tempDir.toFile());
+        Metrics metrics = new Metrics();
+        Metrics singleMetrics = new Metrics();
+
+        Map<String, Pattern> givenTagPatterns = new LinkedHashMap<>();
+        givenTagPatterns.put("all", Pattern.compile("v.+"));
+        givenTagPatterns.put("major", Pattern.compile("v\\d+\\.0\\.0"));
+
+        // when
+        Map<String, GitDescription> descriptions = GitUtil.describe(head(git), givenTagPatterns, git.getRepository(), true, Integer.MAX_VALUE, metrics);
+
+        // then
+        for (Map.Entry<String, Pattern> tagPattern : givenTagPatterns.entrySet()) {
+            GitDescription description = GitUtil.describe(head(git), tagPattern.getValue(), git.getRepository(), true, singleMetrics);
+            assertThat(descriptions.get(tagPattern.getKey())).usingRecursiveComparison().isEqualTo(description);
+        }
+        // the shared walk visits not more commits than the longest single walk
+        assertThat(metrics.counter("git.describe.commits").getValue())
+                .isLessThan(singleMetrics.counter("git.describe.commits").getValue());
+    }
+
+    @Test
+    void describe_allParents_distance() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .mergeInterval(7)
+                .mergeBranchLength(3)
+                .create(tempDir.toFile());
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false, metrics);
+
+        // then
+        assertThat(description.getDistance())
+                .isEqualTo(reachableCommitCount(git.getRepository(), head(git), git.getRepository().resolve(description.getTag() + "^{commit}")));
+        assertThat(metrics.counter("git.describe.bitmaps").getValue()).isEqualTo(0);
+    }
+
+    @Test
+    void describe_allParents_distance_bitmaps() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .mergeInterval(7)
+                .mergeBranchLength(3)
+                .create(tempDir.toFile());
+        // write reachability bitmaps of branch and tag tips
+        git.gc().call();
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false, metrics);
+
+        // then
+        assertThat(description.getDistance())
+                .isEqualTo(reachableCommitCount(git.getRepository(), head(git), git.getRepository().resolve(description.getTag() + "^{commit}")));
+        assertThat(metrics.counter("git.describe.bitmaps").getValue()).isEqualTo(1);
+    }
+
+    @Test
+    void describe_allParents_distance_headWithoutBitmap() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .mergeInterval(7)
+                .mergeBranchLength(3)
+                .create(tempDir.toFile());
+        git.gc().call();
+        // commit without bitmap
+        git.commit().setMessage("commit after gc").setAllowEmpty(true).call();
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false, metrics);
+
+        // then
+        assertThat(description.getDistance())
+                .isEqualTo(reachableCommitCount(git.getRepository(), head(git), git.getRepository().resolve(description.getTag() + "^{commit}")));
+        // falls back to walk commits instead of walking trees and blobs of commits without bitmap
+        assertThat(metrics.counter("git.describe.bitmaps").getValue()).isZero();
+    }
+
+    @Test
+    void describe_allParents_distance_maxDepth() throws Exception {
+        // given
+        Git git = givenMergedSideBranchRepository();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false, 3, new Metrics());
+
+        // then
+        // the tag is found within max depth, but its distance of 4 commits exceeds max depth,
+        // truncated descriptions never name a tag
+        assertThat(description.getTag()).isEqualTo("root");
+        assertThat(description.getDistance()).isEqualTo(3);
+        assertThat(description.isTruncated()).isTrue();
+    }
+
+    @Test
+    void describe_allParents_distance_maxDepth_bitmaps() throws Exception {
+        // given
+        Git git = givenMergedSideBranchRepository();
+        git.gc().call();
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false, 3, metrics);
+
+        // then
+        assertThat(description.getTag()).isEqualTo("root");
+        assertThat(description.getDistance()).isEqualTo(3);
+        assertThat(description.isTruncated()).isTrue();
+        assertThat(metrics.counter("git.describe.bitmaps").getValue()).isEqualTo(1);
+    }
+
+    /**
+     * tag <code>v1.0</code> on the first commit, a side branch of 3 commits merged into HEAD,
+     * commit times ensure the tagged commit is walked right after the merge commit
+     */
+    private Git givenMergedSideBranchRepository() throws Exception {
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit taggedCommit = git.commit().setMessage("tagged commit").setAllowEmpty(true).setCommitter(ident(100)).call();
+        git.tag().setName("v1.0").setObjectId(taggedCommit).call();
+        git.checkout().setCreateBranch(true).setName("side").call();
+        git.commit().setMessage("side commit 1").setAllowEmpty(true).setCommitter(ident(1)).call();
+        git.commit().setMessage("side commit 2").setAllowEmpty(true).setCommitter(ident(2)).call();
+        git.commit().setMessage("side commit 3").setAllowEmpty(true).setCommitter(ident(3)).call();
+        git.checkout().setName(MASTER).call();
+        git.merge().include(git.getRepository().resolve("side")).setFastForward(MergeCommand.FastForwardMode.NO_FF).call();
+        git.commit().setAmend(true).setMessage("merge commit").setCommitter(ident(200)).call();
+        return git;
+    }
+
+    @Test
+    void writeCommitGraph() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .mergeInterval(10)
+                .mergeBranchLength(3)
+                .create(tempDir.toFile());
+        Metrics metrics = new Metrics();
+
+        // when
+        boolean written = GitUtil.writeCommitGraph(git.getRepository(), metrics);
+
+        // then
+        assertThat(written).isTrue();
+        CommitGraphFile commitGraph = GitUtil.commitGraph(git.getRepository());
+        assertThat(commitGraph.commitCount()).isEqualTo(127);
+        assertThat(commitGraph.position(head(git))).isNotNegative();
+        assertThat(commitGraph.hasChangedPaths(commitGraph.position(head(git)))).isFalse();
+        assertThat(metrics.counter("git.commitGraph.commits").getValue()).isEqualTo(127);
+    }
+
+    @Test
+    void writeCommitGraph_upToDate() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .create(tempDir.toFile());
+        GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+
+        // when
+        boolean written = GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+
+        // then
+        assertThat(written).isFalse();
+    }
+
+    @Test
+    void writeCommitGraph_stale() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .create(tempDir.toFile());
+        GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+        git.commit().setMessage("commit after commit-graph").setAllowEmpty(true).call();
+
+        // when
+        boolean written = GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+
+        // then
+        assertThat(written).isTrue();
+        CommitGraphFile commitGraph = GitUtil.commitGraph(git.getRepository());
+        assertThat(commitGraph.position(head(git))).isNotNegative();
+    }
+
+    @Test
+    void writeCommitGraph_changedPaths() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .create(tempDir.toFile());
+        GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+        StoredConfig config = git.getRepository().getConfig();
+        config.setBoolean("commitGraph", null, "writeChangedPaths", true);
+        config.save();
+        Metrics metrics = new Metrics();
+
+        // when
+        boolean written = GitUtil.writeCommitGraph(git.getRepository(), metrics);
+
+        // then
+        assertThat(written).isTrue();
+        CommitGraphFile commitGraph = GitUtil.commitGraph(git.getRepository());
+        assertThat(commitGraph.hasChangedPaths(commitGraph.position(head(git)))).isTrue();
+        assertThat(metrics.counter("git.commitGraph.bloom.computed").getValue()).isEqualTo(10);
+    }
+
+    @Test
+    void writeCommitGraph_locked() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .create(tempDir.toFile());
+        File commitGraphFile = new File(git.getRepository().getDirectory(), "objects/info/commit-graph");
+        // lock file of another process
+        Files.createDirectories(commitGraphFile.getParentFile().toPath());
+        Files.createFile(new File(commitGraphFile.getParentFile(), "commit-graph.lock").toPath());
+
+        // when
+        boolean written = GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+
+        // then
+        assertThat(written).isFalse();
+        assertThat(commitGraphFile).doesNotExist();
+    }
+
+    @Test
+    void writeCommitGraph_splitChain() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .create(tempDir.toFile());
+        File commitGraphFile = new File(git.getRepository().getDirectory(), "objects/info/commit-graph");
+        // split commit-graph chain e.g. written by git maintenance
+        File chainFile = new File(git.getRepository().getDirectory(), "objects/info/commit-graphs/commit-graph-chain");
+        Files.createDirectories(chainFile.getParentFile().toPath());
+        Files.createFile(chainFile.toPath());
+
+        // when
+        boolean written = GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+
+        // then
+        assertThat(written).isFalse();
+        assertThat(commitGraphFile).doesNotExist();
+        assertThat(GitUtil.commitGraph(git.getRepository()).commitCount()).isEqualTo(0);
+    }
+
+    @Test
+    void describe_noMatchingTag() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .create(tempDir.toFile());
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("x.+"), git.getRepository(), true, metrics);
+
+        // then
+        assertThat(description.getTag()).isEqualTo("root");
+        assertThat(description.getDistance()).isEqualTo(100);
+        assertThat(metrics.counter("git.describe.commits").getValue()).isEqualTo(100);
+    }
+
+    @Test
+    void describe_noMatchingTag_allParents() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .mergeInterval(10)
+                .mergeBranchLength(3)
+                .create(tempDir.toFile());
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("x.+"), git.getRepository(), false);
+
+        // then
+        // 100 first parent commits and 9 side branches of 3 commits each
+        assertThat(description.getTag()).isEqualTo("root");
+        assertThat(description.getDistance()).isEqualTo(127);
+    }
+
+    @Test
+    void describe_noMatchingTag_commitGraph() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .mergeInterval(10)
+                .mergeBranchLength(3)
+                .create(tempDir.toFile());
+        GitUtil.writeCommitGraph(git.getRepository(), new Metrics());
+        git.commit().setMessage("commit after commit-graph").setAllowEmpty(true).call();
+        Metrics metrics = new Metrics();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("x.+"), git.getRepository(), false, metrics);
+
+        // then
+        assertThat(description.getTag()).isEqualTo("root");
+        assertThat(description.getDistance()).isEqualTo(128);
+        assertThat(metrics.counter("git.describe.commits").getValue()).isEqualTo(1);
+        assertThat(metrics.counter("git.describe.graphCommits").getValue()).isEqualTo(127);
+    }
+
+    @Test
+    void describe_event() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(10)
+                .create(tempDir.toFile());
+        Path recordingFile = Files.createTempFile("git-events", ".jfr");
+
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable(GitEvents.Describe.class).withoutThreshold();
+            recording.enable(GitEvents.TagMap.class).withoutThreshold();
+            recording.start();
+            GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        Files.delete(recordingFile);
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals("me.qoomon.gitversioning.Describe"))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("tag")).isEqualTo(SyntheticRepository.tagName(9));
+                    assertThat(event.getInt("distance")).isEqualTo(9);
+                    assertThat(event.getBoolean("firstParent")).isTrue();
+                });
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals("me.qoomon.gitversioning.TagMap"))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getInt("tagCount")).isEqualTo(10));
+    }
+
+    @Test
+    void status_metrics() throws Exception {
+        // given
+        Git git = new SyntheticRepository()
+                .historyDepth(10)
+                .fileCount(10)
+                .create(tempDir.toFile());
+        Metrics metrics = new Metrics();
+
+        // when
+        Status status = GitUtil.status(git.getRepository(), metrics);
+
+        // then
+        assertThat(status.isClean()).isTrue();
+        // 10 files within one directory, the directory entry itself
+        assertThat(metrics.counter("git.status.entries").getValue()).isEqualTo(11);
+    }
 }
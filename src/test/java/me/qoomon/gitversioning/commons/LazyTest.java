@@ -2,9 +2,19 @@ package me.qoomon.gitversioning.commons;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 class LazyTest {
 
@@ -35,4 +45,83 @@ class LazyTest {
         assertThat(value).isEqualTo(1);
         assertThat(count.get()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getValueBySupplierOnlyCallOnceConcurrently() throws Exception {
+        // GIVEN
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch initializerStarted = new CountDownLatch(1);
+        CountDownLatch initializerRelease = new CountDownLatch(1);
+        Lazy<Integer> lazyValue = Lazy.by(() -> {
+            initializerStarted.countDown();
+            initializerRelease.await(10, SECONDS);
+            return count.incrementAndGet();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // WHEN
+            List<Future<Integer>> values = new ArrayList<>();
+            values.add(executor.submit(() -> lazyValue.get()));
+            initializerStarted.await(10, SECONDS);
+            for (int i = 0; i < 3; i++) {
+                values.add(executor.submit(() -> lazyValue.get()));
+            }
+            initializerRelease.countDown();
+
+            // THEN
+            for (Future<Integer> value : values) {
+                assertThat(value.get(10, SECONDS)).isEqualTo(1);
+            }
+            assertThat(count.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getFailureBySupplierOnlyCallOnce() {
+        // GIVEN
+        AtomicInteger count = new AtomicInteger();
+        Lazy<Integer> lazyValue = Lazy.by(() -> {
+            count.incrementAndGet();
+            throw new IllegalStateException("foo");
+        });
+
+        // WHEN
+        assertThatThrownBy(lazyValue::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(lazyValue::get).hasCauseInstanceOf(IllegalStateException.class);
+
+        // THEN
+        assertThat(count.get()).isEqualTo(1);
+        assertThat(lazyValue.isInitialized()).isTrue();
+    }
+
+    @Test
+    void getRecursively() {
+        // GIVEN
+        AtomicReference<Lazy<String>> lazyValueReference = new AtomicReference<>();
+        Lazy<String> lazyValue = Lazy.by(() -> lazyValueReference.get().get());
+        lazyValueReference.set(lazyValue);
+
+        // WHEN
+        Throwable failure = catchThrowable(lazyValue::get);
+
+        // THEN
+        assertThat(failure).hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void isInitialized() {
+        // GIVEN
+        Lazy<String> lazyValue = Lazy.by(() -> "foo");
+
+        // WHEN
+        boolean initializedBefore = lazyValue.isInitialized();
+        lazyValue.get();
+
+        // THEN
+        assertThat(initializedBefore).isFalse();
+        assertThat(lazyValue.isInitialized()).isTrue();
+    }
+}
@@ -0,0 +1,50 @@
+package me.qoomon.gitversioning.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTest {
+
+    @Test
+    void start() {
+        // GIVEN
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        try (Metrics.Measurement ignored = metrics.start("foo")) {
+            try (Metrics.Measurement ignored2 = metrics.start("bar")) {
+                metrics.timer("baz").record(10);
+            }
+        }
+        try (Metrics.Measurement ignored = metrics.start("foo")) {
+            metrics.timer("baz").record(5);
+        }
+
+        // THEN
+        List<Metrics.Timer> timers = metrics.getTimers();
+        assertThat(timers).extracting(Metrics.Timer::getName).containsExactly("foo", "bar", "baz");
+        assertThat(timers).extracting(Metrics.Timer::getCount).containsExactly(2L, 1L, 2L);
+
+        Metrics.Timer baz = metrics.timer("baz");
+        assertThat(baz.getTotalNanos()).isEqualTo(15);
+        assertThat(baz.getMaxNanos()).isEqualTo(10);
+    }
+
+    @Test
+    void counter() {
+        // GIVEN
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        metrics.counter("foo").increment();
+        metrics.counter("bar").add(3);
+        metrics.counter("foo").add(2);
+
+        // THEN
+        assertThat(metrics.getCounters()).extracting(Metrics.Counter::getName).containsExactly("foo", "bar");
+        assertThat(metrics.getCounters()).extracting(Metrics.Counter::getValue).containsExactly(3L, 3L);
+    }
+}
@@ -0,0 +1,223 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class ModuleHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void walk() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(head(git), List.of("", "api", "core", "docs"),
+                git.getRepository(), false, 5, metrics);
+
+        // THEN
+        assertThat(history.getTouchingCommitCount("")).isEqualTo(5);
+        assertThat(history.getTouchingCommitCount("api")).isEqualTo(2);
+        assertThat(history.getTouchingCommitCount("core")).isEqualTo(2);
+        assertThat(history.getTouchingCommitCount("docs")).isEqualTo(0);
+        assertThat(metrics.counter("git.module.commits").getValue()).isEqualTo(5);
+        assertThat(metrics.counter("git.module.diffs").getValue()).isEqualTo(5);
+        assertThat(metrics.counter("git.module.bloom.excluded").getValue()).isEqualTo(0);
+    }
+
+    @Test
+    void walk_depth() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(head(git), List.of("api", "core/"),
+                git.getRepository(), false, 2, new Metrics());
+
+        // THEN
+        assertThat(history.getTouchingCommitCount("api")).isEqualTo(1);
+        assertThat(history.getTouchingCommitCount("core")).isEqualTo(1);
+    }
+
+    @Test
+    void walk_changedPathFilter() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+        writeCommitGraph(git.getRepository());
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(head(git), List.of("api", "core", "docs"),
+                git.getRepository(), false, 5, metrics);
+
+        // THEN
+        assertThat(history.getTouchingCommitCount("api")).isEqualTo(2);
+        assertThat(history.getTouchingCommitCount("core")).isEqualTo(2);
+        assertThat(history.getTouchingCommitCount("docs")).isEqualTo(0);
+        assertThat(metrics.counter("git.module.commits").getValue()).isEqualTo(5);
+        // at least the commits touching neither api nor core nor docs are not diffed at all
+        assertThat(metrics.counter("git.module.diffs").getValue()).isLessThan(5);
+        assertThat(metrics.counter("git.module.bloom.excluded").getValue()).isGreaterThan(0);
+    }
+
+    @Test
+    void walk_lastCommit() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+        ObjectId apiCommit = git.getRepository().resolve("HEAD~3");
+        ObjectId rootCommit = git.getRepository().resolve("HEAD~1");
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(git.getRepository().resolve("HEAD~1"), List.of("", "api"),
+                git.getRepository(), false, 0, metrics);
+
+        // THEN
+        assertThat(history.getLastCommit("")).isEqualTo(rootCommit);
+        assertThat(history.getLastCommit("api")).isEqualTo(apiCommit);
+        assertThat(history.getLastCommitTimestamp("api").toEpochSecond())
+                .isEqualTo(git.getRepository().parseCommit(apiCommit).getCommitTime());
+        assertThat(history.getTouchingCommitCount("api")).isEqualTo(0);
+        // walk stops as soon as all modules are resolved
+        assertThat(metrics.counter("git.module.commits").getValue()).isEqualTo(3);
+    }
+
+    @Test
+    void walk_lastCommit_depth() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+        ObjectId apiCommit = git.getRepository().resolve("HEAD~3");
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(git.getRepository().resolve("HEAD~1"), List.of("api", "core"),
+                git.getRepository(), false, 1, metrics);
+
+        // THEN
+        assertThat(history.getLastCommit("api")).isEqualTo(apiCommit);
+        assertThat(history.getTouchingCommitCount("api")).isEqualTo(0);
+        assertThat(history.getTouchingCommitCount("core")).isEqualTo(0);
+        assertThat(metrics.counter("git.module.commits").getValue()).isEqualTo(3);
+    }
+
+    @Test
+    void walk_lastCommit_untouchedModule() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+        Metrics metrics = new Metrics();
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(head(git), List.of("api", "docs"),
+                git.getRepository(), false, 0, metrics);
+
+        // THEN
+        assertThat(history.getLastCommit("api")).isEqualTo(head(git));
+        assertThat(history.getLastCommit("docs")).isNull();
+        assertThat(history.getLastCommitTimestamp("docs")).isNull();
+        assertThat(metrics.counter("git.module.commits").getValue()).isEqualTo(5);
+    }
+
+    @Test
+    void walk_base() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+        ObjectId base = git.getRepository().resolve("HEAD~2");
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(head(git), base, List.of("", "api", "core"),
+                git.getRepository(), new Metrics());
+
+        // THEN
+        assertThat(history.getTouchingCommitCount("")).isEqualTo(2);
+        assertThat(history.getTouchingCommitCount("api")).isEqualTo(1);
+        assertThat(history.getTouchingCommitCount("core")).isEqualTo(1);
+    }
+
+    @Test
+    void walk_base_lastCommit() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+        ObjectId base = git.getRepository().resolve("HEAD~2");
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(git.getRepository().resolve("HEAD~1"), base, List.of("api", "docs"),
+                git.getRepository(), new Metrics());
+
+        // THEN
+        assertThat(history.getTouchingCommitCount("api")).isEqualTo(0);
+        // last commits are not searched beyond base commit
+        assertThat(history.getLastCommit("api")).isNull();
+        assertThat(history.getLastCommit("docs")).isNull();
+    }
+
+    @Test
+    void getTouchingCommitCount_unknownModule() throws Exception {
+        // GIVEN
+        Git git = givenModuleRepository();
+
+        // WHEN
+        ModuleHistory history = ModuleHistory.walk(head(git), List.of("api"),
+                git.getRepository(), false, 5, new Metrics());
+
+        // THEN
+        assertThatThrownBy(() -> history.getTouchingCommitCount("core"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * history from oldest to newest: root file, api, core, root file, api + core
+     */
+    private Git givenModuleRepository() throws Exception {
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        commit(git, "pom.xml", "1");
+        commit(git, "api/pom.xml", "1");
+        commit(git, "core/pom.xml", "1");
+        commit(git, "pom.xml", "2");
+        write(git, "api/src/Api.java", "2");
+        commit(git, "core/src/Core.java", "2");
+        return git;
+    }
+
+    private static void commit(Git git, String path, String content) throws Exception {
+        write(git, path, content);
+        git.commit().setMessage(path + " " + content).call();
+    }
+
+    private static void write(Git git, String path, String content) throws Exception {
+        Path file = git.getRepository().getWorkTree().toPath().resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        git.add().addFilepattern(path).call();
+    }
+
+    private static ObjectId head(Git git) throws IOException {
+        return git.getRepository().resolve(HEAD);
+    }
+
+    private static void writeCommitGraph(Repository repository) throws IOException {
+        // with changed-path Bloom filters
+        StoredConfig config = repository.getConfig();
+        config.setBoolean("commitGraph", null, "writeChangedPaths", true);
+        config.save();
+        GitUtil.writeCommitGraph(repository, new Metrics());
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
@@ -27,6 +28,35 @@ class StringUtilTest {
         assertThat(outputText).isEqualTo("fairytale");
     }
 
+    @Test
+    void placeholderKeys() {
+
+        // Given
+        String givenText = "${describe.tag}-${dirty:-clean}${property.foo:+bar}-${commit}";
+
+        // When
+        Set<String> keys = StringUtil.placeholderKeys(givenText);
+
+        // Then
+        assertThat(keys).containsExactlyInAnyOrder("describe.tag", "dirty", "property.foo", "commit");
+    }
+
+    @Test
+    void substituteText_qualifiedKey() {
+
+        // Given
+        String givenText = "${describe:api.tag}-${describe:api.distance:-0}${describe:web.tag:-none}";
+        Map<String, Supplier<String>> givenSubstitutionMap = new HashMap<>();
+        givenSubstitutionMap.put("describe:api.tag", () -> "api-1.0");
+        givenSubstitutionMap.put("describe:api.distance", () -> "2");
+
+        // When
+        String outputText = StringUtil.substituteText(givenText, givenSubstitutionMap);
+
+        // Then
+        assertThat(outputText).isEqualTo("api-1.0-2none");
+    }
+
     @Test
     void substituteText_missingValue() {
 
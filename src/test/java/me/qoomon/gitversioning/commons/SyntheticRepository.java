@@ -0,0 +1,260 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand.ResetType;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.internal.storage.file.PackInserter;
+import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.ReceiveCommand;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.jgit.lib.Constants.*;
+
+/**
+ * Generates git repositories of configurable size for tests and benchmarks.
+ * <p>
+ * Objects are written directly into a pack file, so even histories of 100k+ commits are created within seconds.
+ * Each commit modifies exactly one file, tags are distributed evenly over the first parent history,
+ * the latest tag is the one closest to HEAD.
+ * Optionally every <code>mergeInterval</code>-th first parent commit merges a side branch of <code>mergeBranchLength</code> commits.
+ */
+public final class SyntheticRepository {
+
+    private static final int FILES_PER_DIRECTORY = 100;
+    private static final Instant BASE_TIME = Instant.ofEpochSecond(1_600_000_000L);
+
+    private int historyDepth = 100;
+    private int tagCount = 0;
+    private boolean annotatedTags = false;
+    private int fileCount = 1;
+    private int mergeInterval = 0;
+    private int mergeBranchLength = 1;
+
+    public SyntheticRepository historyDepth(int historyDepth) {
+        this.historyDepth = historyDepth;
+        return this;
+    }
+
+    public SyntheticRepository tagCount(int tagCount) {
+        this.tagCount = tagCount;
+        return this;
+    }
+
+    public SyntheticRepository annotatedTags(boolean annotatedTags) {
+        this.annotatedTags = annotatedTags;
+        return this;
+    }
+
+    public SyntheticRepository fileCount(int fileCount) {
+        this.fileCount = fileCount;
+        return this;
+    }
+
+    public SyntheticRepository mergeInterval(int mergeInterval) {
+        this.mergeInterval = mergeInterval;
+        return this;
+    }
+
+    public SyntheticRepository mergeBranchLength(int mergeBranchLength) {
+        this.mergeBranchLength = mergeBranchLength;
+        return this;
+    }
+
+    /**
+     * @param directory work tree directory
+     * @return git with checked out <code>master</code> branch
+     */
+    public Git create(File directory) throws GitAPIException, IOException {
+        if (tagCount > historyDepth) {
+            throw new IllegalArgumentException("tagCount must not be greater than historyDepth");
+        }
+
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(directory).call();
+        Repository repository = git.getRepository();
+
+        List<ReceiveCommand> refCommands = new ArrayList<>();
+        ObjectId head = null;
+        try (ObjectInserter inserter = newPackInserter(repository)) {
+            int directoryCount = Math.max(1, (fileCount + FILES_PER_DIRECTORY - 1) / FILES_PER_DIRECTORY);
+            ObjectId[][] blobs = new ObjectId[directoryCount][];
+            ObjectId[] directoryTrees = new ObjectId[directoryCount];
+            for (int directoryIndex = 0; directoryIndex < directoryCount; directoryIndex++) {
+                int directoryFileCount = Math.min(FILES_PER_DIRECTORY, fileCount - directoryIndex * FILES_PER_DIRECTORY);
+                blobs[directoryIndex] = new ObjectId[Math.max(1, directoryFileCount)];
+                for (int fileIndex = 0; fileIndex < blobs[directoryIndex].length; fileIndex++) {
+                    blobs[directoryIndex][fileIndex] = insertBlob(inserter, directoryIndex, fileIndex, 0);
+                }
+                directoryTrees[directoryIndex] = insertDirectoryTree(inserter, blobs[directoryIndex]);
+            }
+
+            int tagInterval = tagCount > 0 ? historyDepth / tagCount : 0;
+            int tagIndex = 0;
+            for (int commitIndex = 0; commitIndex < historyDepth; commitIndex++) {
+                // modify one file per commit
+                if (commitIndex > 0) {
+                    int file = commitIndex % fileCount;
+                    int directoryIndex = Math.min(file / FILES_PER_DIRECTORY, directoryCount - 1);
+                    int fileIndex = file % blobs[directoryIndex].length;
+                    blobs[directoryIndex][fileIndex] = insertBlob(inserter, directoryIndex, fileIndex, commitIndex);
+                    directoryTrees[directoryIndex] = insertDirectoryTree(inserter, blobs[directoryIndex]);
+                }
+
+                PersonIdent ident = ident(commitIndex);
+                ObjectId treeId = insertRootTree(inserter, directoryTrees);
+                if (mergeInterval > 0 && commitIndex % mergeInterval == 0 && head != null) {
+                    // side branch commits keep tree of fork point
+                    ObjectId sideBranchHead = head;
+                    for (int sideCommitIndex = 0; sideCommitIndex < mergeBranchLength; sideCommitIndex++) {
+                        sideBranchHead = insertCommit(inserter, treeId, ident, "side commit " + commitIndex + "/" + sideCommitIndex, sideBranchHead);
+                    }
+                    head = insertCommit(inserter, treeId, ident, "merge commit " + commitIndex, head, sideBranchHead);
+                } else if (head != null) {
+                    head = insertCommit(inserter, treeId, ident, "commit " + commitIndex, head);
+                } else {
+                    head = insertCommit(inserter, treeId, ident, "commit " + commitIndex);
+                }
+
+                // tag every tagInterval-th commit starting with the root commit,
+                // so describe of HEAD has to walk about tagInterval commits
+                if (tagInterval > 0 && commitIndex % tagInterval == 0 && tagIndex < tagCount) {
+                    String tagName = tagName(tagIndex++);
+                    ObjectId tagTarget = head;
+                    if (annotatedTags) {
+                        TagBuilder tag = new TagBuilder();
+                        tag.setObjectId(head, OBJ_COMMIT);
+                        tag.setTag(tagName);
+                        tag.setTagger(ident);
+                        tag.setMessage(tagName + "\n");
+                        tagTarget = inserter.insert(tag);
+                    }
+                    refCommands.add(new ReceiveCommand(ObjectId.zeroId(), tagTarget, R_TAGS + tagName));
+                }
+            }
+            inserter.flush();
+        }
+
+        if (head != null) {
+            refCommands.add(new ReceiveCommand(ObjectId.zeroId(), head, R_HEADS + MASTER));
+            BatchRefUpdate refUpdate = repository.getRefDatabase().newBatchUpdate();
+            refUpdate.setAtomic(false);
+            refUpdate.addCommand(refCommands);
+            try (RevWalk walk = new RevWalk(repository)) {
+                refUpdate.execute(walk, NullProgressMonitor.INSTANCE);
+            }
+            for (ReceiveCommand command : refCommands) {
+                if (command.getResult() != ReceiveCommand.Result.OK) {
+                    throw new IOException("Unable to update ref " + command.getRefName() + ": " + command.getResult());
+                }
+            }
+            // check out work tree and index
+            git.reset().setMode(ResetType.HARD).setRef(HEAD).call();
+        }
+        return git;
+    }
+
+    /**
+     * Creates a shallow clone, see <code>git clone --depth</code>.
+     *
+     * @param source    source repository
+     * @param directory clone work tree directory
+     * @param depth     history depth
+     * @return git of cloned repository
+     */
+    public static Git shallowClone(Repository source, File directory, int depth) throws GitAPIException {
+        return Git.cloneRepository()
+                .setURI(source.getDirectory().toURI().toString())
+                .setDirectory(directory)
+                .setDepth(depth)
+                .call();
+    }
+
+    /**
+     * Creates a linked work tree of a new branch, see <code>git worktree add</code>.
+     * Files are not checked out into the linked work tree.
+     *
+     * @param repository main repository
+     * @param directory  linked work tree directory
+     * @param branch     branch name, branch starts at HEAD of <code>repository</code>
+     * @return linked work tree repository
+     */
+    public static Repository addWorktree(Repository repository, File directory, String branch) throws IOException {
+        RefUpdate branchUpdate = repository.updateRef(R_HEADS + branch);
+        branchUpdate.setNewObjectId(repository.resolve(HEAD));
+        branchUpdate.update();
+
+        File worktreeGitDir = new File(new File(repository.getDirectory(), "worktrees"), directory.getName());
+        Files.createDirectories(worktreeGitDir.toPath());
+        Files.createDirectories(directory.toPath());
+        Files.writeString(new File(worktreeGitDir, HEAD).toPath(), "ref: " + R_HEADS + branch + "\n");
+        Files.writeString(new File(worktreeGitDir, "commondir").toPath(), "../..\n");
+        Files.writeString(new File(worktreeGitDir, "gitdir").toPath(), new File(directory, DOT_GIT).getAbsolutePath() + "\n");
+        Files.writeString(new File(directory, DOT_GIT).toPath(), "gitdir: " + worktreeGitDir.getAbsolutePath() + "\n");
+
+        return new FileRepositoryBuilder().setGitDir(worktreeGitDir).build();
+    }
+
+    /**
+     * @param index tag index
+     * @return tag name e.g. <code>v1.23.0</code>, higher index results in higher version
+     */
+    public static String tagName(int index) {
+        return "v" + (index / 100) + "." + (index % 100) + ".0";
+    }
+
+    private static PersonIdent ident(int commitIndex) {
+        return new PersonIdent("Synthetic", "synthetic@example.com",
+                BASE_TIME.plusSeconds(commitIndex * 60L), ZoneOffset.UTC);
+    }
+
+    private static ObjectInserter newPackInserter(Repository repository) {
+        ObjectDatabase objectDatabase = repository.getObjectDatabase();
+        if (objectDatabase instanceof ObjectDirectory) {
+            // avoid hundreds of thousands of loose object files
+            PackInserter packInserter = ((ObjectDirectory) objectDatabase).newPackInserter();
+            packInserter.checkExisting(false);
+            return packInserter;
+        }
+        return objectDatabase.newInserter();
+    }
+
+    private static ObjectId insertCommit(ObjectInserter inserter, ObjectId treeId, PersonIdent ident, String message, ObjectId... parentIds) throws IOException {
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(treeId);
+        commit.setParentIds(parentIds);
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage(message + "\n");
+        return inserter.insert(commit);
+    }
+
+    private static ObjectId insertBlob(ObjectInserter inserter, int directoryIndex, int fileIndex, int revision) throws IOException {
+        return inserter.insert(OBJ_BLOB, ("file " + directoryIndex + "/" + fileIndex + "\nrevision " + revision + "\n").getBytes(UTF_8));
+    }
+
+    private static ObjectId insertDirectoryTree(ObjectInserter inserter, ObjectId[] blobs) throws IOException {
+        TreeFormatter tree = new TreeFormatter();
+        for (int fileIndex = 0; fileIndex < blobs.length; fileIndex++) {
+            tree.append(String.format("file-%03d.txt", fileIndex), FileMode.REGULAR_FILE, blobs[fileIndex]);
+        }
+        return inserter.insert(tree);
+    }
+
+    private static ObjectId insertRootTree(ObjectInserter inserter, ObjectId[] directoryTrees) throws IOException {
+        TreeFormatter tree = new TreeFormatter();
+        for (int directoryIndex = 0; directoryIndex < directoryTrees.length; directoryIndex++) {
+            tree.append(String.format("dir-%05d", directoryIndex), FileMode.TREE, directoryTrees[directoryIndex]);
+        }
+        return inserter.insert(tree);
+    }
+}
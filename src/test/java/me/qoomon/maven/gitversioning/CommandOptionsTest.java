@@ -0,0 +1,56 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.maven.gitversioning.CommandOptions.Source;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommandOptionsTest {
+
+    @Test
+    void resolve() {
+        // given
+        Properties userProperties = new Properties();
+        userProperties.setProperty("versioning.disable", "true");
+        Map<String, String> environment = Map.of(
+                "VERSIONING_DISABLE", "false",
+                "VERSIONING_UPDATE_POM", "true");
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("versioning.updatePom", "false");
+        systemProperties.setProperty("git.ref", "refs/heads/main");
+
+        // when
+        CommandOptions options = CommandOptions.resolve(
+                List.of("versioning.disable", "versioning.updatePom", "git.ref", "git.tag"),
+                userProperties, environment, systemProperties);
+
+        // then
+        assertThat(options.get("versioning.disable")).isEqualTo("true");
+        assertThat(options.get("versioning.updatePom")).isEqualTo("true");
+        assertThat(options.get("git.ref")).isEqualTo("refs/heads/main");
+        assertThat(options.get("git.tag")).isNull();
+        assertThat(options.getOptions()).extracting(CommandOptions.Option::getSource)
+                .containsExactly(Source.USER_PROPERTY, Source.ENVIRONMENT_VARIABLE, Source.SYSTEM_PROPERTY, null);
+    }
+
+    @Test
+    void get_unknownOption() {
+        // given
+        CommandOptions options = CommandOptions.resolve(List.of(), new Properties(), Map.of(), new Properties());
+
+        // when / then
+        assertThatThrownBy(() -> options.get("versioning.disable")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void environmentVariableName() {
+        assertThat(CommandOptions.environmentVariableName("versioning.updatePom")).isEqualTo("VERSIONING_UPDATE_POM");
+        assertThat(CommandOptions.environmentVariableName("versioning.configFile")).isEqualTo("VERSIONING_CONFIG_FILE");
+        assertThat(CommandOptions.environmentVariableName("git.ref")).isEqualTo("VERSIONING_GIT_REF");
+    }
+}
@@ -0,0 +1,83 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import me.qoomon.maven.gitversioning.Configuration.PatchDescription;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigurationTest {
+
+    @Test
+    void pattern_compiledOnce() {
+        // given
+        RefPatchDescription refPatchDescription = new RefPatchDescription();
+        refPatchDescription.pattern = "main";
+
+        // when
+        Pattern pattern = refPatchDescription.pattern();
+
+        // then
+        assertThat(pattern.pattern()).isEqualTo("main");
+        assertThat(refPatchDescription.pattern()).isSameAs(pattern);
+    }
+
+    @Test
+    void pattern_recompiledAfterChange() {
+        // given
+        RefPatchDescription refPatchDescription = new RefPatchDescription();
+        refPatchDescription.pattern = "main";
+        refPatchDescription.pattern();
+
+        // when
+        refPatchDescription.pattern = "feature/.+";
+        Pattern pattern = refPatchDescription.pattern();
+
+        // then
+        assertThat(pattern.pattern()).isEqualTo("feature/.+");
+    }
+
+    @Test
+    void pattern_null() {
+        // given
+        RefPatchDescription refPatchDescription = new RefPatchDescription();
+
+        // when
+        Pattern pattern = refPatchDescription.pattern();
+
+        // then
+        assertThat(pattern).isNull();
+    }
+
+    @Test
+    void describeTagPatterns_compiledOnce() {
+        // given
+        PatchDescription patchDescription = new PatchDescription();
+        patchDescription.describeTagPatterns.put("api", "api-(.+)");
+
+        // when
+        Map<String, Pattern> patterns = patchDescription.describeTagPatterns();
+
+        // then
+        assertThat(patterns.get("api").pattern()).isEqualTo("api-(.+)");
+        assertThat(patchDescription.describeTagPatterns().get("api")).isSameAs(patterns.get("api"));
+    }
+
+    @Test
+    void describeTagPatterns_ignoreWhitespace() throws Exception {
+        // given
+        String configXml = "<configuration>" +
+                "<describeTagPatterns><api>\n  api-(.+)\n</api></describeTagPatterns>" +
+                "</configuration>";
+
+        // when
+        Configuration config = new XmlMapper().readValue(configXml, Configuration.class);
+
+        // then
+        assertThat(config.describeTagPatterns).containsEntry("api", "api-(.+)");
+    }
+}
@@ -0,0 +1,76 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitVersionedPomCacheTest {
+
+    @TempDir
+    Path projectDir;
+
+    final byte[] pom = "<project/>".getBytes(UTF_8);
+
+    @Test
+    void stateFile_defaultBuildDirectory() {
+        // given
+        Model model = model("1.0.0");
+
+        // when
+        File stateFile = GitVersionedPomCache.stateFile(model);
+
+        // then
+        assertThat(stateFile.getPath()).startsWith(projectDir.resolve("target").resolve("maven-status").toString());
+    }
+
+    @Test
+    void digest_changesWithVersion() {
+        // when
+        String digest = GitVersionedPomCache.digest(pom, model("1.0.0"));
+        String otherDigest = GitVersionedPomCache.digest(pom, model("2.0.0"));
+
+        // then
+        assertThat(digest).isEqualTo(GitVersionedPomCache.digest(pom, model("1.0.0")));
+        assertThat(digest).isNotEqualTo(otherDigest);
+    }
+
+    @Test
+    void isUpToDate() throws Exception {
+        // given
+        Model model = model("1.0.0");
+        File stateFile = GitVersionedPomCache.stateFile(model);
+        File gitVersionedPomFile = projectDir.resolve(GitVersioningModelProcessor.GIT_VERSIONING_POM_NAME).toFile();
+        Files.write(gitVersionedPomFile.toPath(), pom);
+        String digest = GitVersionedPomCache.digest(pom, model);
+
+        // when
+        boolean upToDateBeforeUpdate = GitVersionedPomCache.isUpToDate(stateFile, digest, gitVersionedPomFile);
+        GitVersionedPomCache.update(stateFile, digest, gitVersionedPomFile);
+        boolean upToDate = GitVersionedPomCache.isUpToDate(stateFile, digest, gitVersionedPomFile);
+        boolean upToDateWithOtherDigest = GitVersionedPomCache.isUpToDate(stateFile, digest + "0", gitVersionedPomFile);
+        Files.write(gitVersionedPomFile.toPath(), "<project></project>".getBytes(UTF_8));
+        boolean upToDateAfterModification = GitVersionedPomCache.isUpToDate(stateFile, digest, gitVersionedPomFile);
+
+        // then
+        assertThat(upToDateBeforeUpdate).isFalse();
+        assertThat(upToDate).isTrue();
+        assertThat(upToDateWithOtherDigest).isFalse();
+        assertThat(upToDateAfterModification).isFalse();
+    }
+
+    private Model model(String version) {
+        Model model = new Model();
+        model.setGroupId("test");
+        model.setArtifactId("test-artifact");
+        model.setVersion(version);
+        model.setPomFile(projectDir.resolve("pom.xml").toFile());
+        return model;
+    }
+}
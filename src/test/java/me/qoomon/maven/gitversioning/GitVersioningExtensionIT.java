@@ -27,7 +27,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static me.qoomon.gitversioning.commons.GitRefType.BRANCH;
 import static me.qoomon.gitversioning.commons.GitRefType.TAG;
@@ -72,7 +76,7 @@ class GitVersioningExtensionIT {
         verifier.verifyFileNotPresent(GIT_VERSIONING_POM_NAME);
     }
 
-    private static Verifier getVerifier(Path projectDir) throws Exception {
+    static Verifier getVerifier(Path projectDir) throws Exception {
         Path settingsFile = writeIsolatedSettings(projectDir);
         Verifier verifier = new Verifier(projectDir.toFile().getAbsolutePath(), settingsFile.toString(), true);
         verifier.addCliArguments("-s", settingsFile.toString());
@@ -200,6 +204,170 @@ class GitVersioningExtensionIT {
             assertThat(gitVersionedPomModel.getVersion()).isEqualTo(expectedVersion);
         }
     }
+
+    @Test
+    void branchVersioning_timings() throws Exception {
+
+        try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.addCliArgument("-Dversioning.timings");
+            verifier.addCliArgument("verify");
+            verifier.execute();
+
+            // Then
+            System.err.println(String.join("\n", verifier.loadFile(verifier.getBasedir(), verifier.getLogFileName(), false)));
+            verifier.verifyErrorFreeLog();
+            verifier.verifyTextInLog("git versioning timings:");
+            verifier.verifyTextInLog("init.gitSituation");
+            verifier.verifyTextInLog("model.writePom");
+
+            String timingsReport = Files.readString(projectDir.resolve("target").resolve("git-versioning-timings.json"));
+            assertThat(timingsReport)
+                    .contains("\"name\" : \"init\"")
+                    .contains("\"name\" : \"git.branch\"")
+                    .contains("\"name\" : \"model.writePom\"");
+        }
+    }
+
+    @Test
+    void branchVersioning_writeCommitGraph() throws Exception {
+
+        try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.addCliArgument("-Dversioning.writeCommitGraph");
+            verifier.addCliArgument("verify");
+            verifier.execute();
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            verifier.verifyTextInLog("git versioning commit-graph written");
+            assertThat(projectDir.resolve(".git/objects/info/commit-graph")).exists();
+        }
+    }
+
+    @Test
+    void branchVersioning_prefetch() throws Exception {
+
+        try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+            git.tag().setName("v1.2.3").call();
+            git.commit().setMessage("second commit").setAllowEmpty(true).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+            RefPatchDescription branchVersionDescription = createBranchVersionDescription();
+            branchVersionDescription.version = "${describe.tag.version}-${describe.distance}${dirty}-${commit.timestamp.year}";
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(branchVersionDescription);
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.addCliArgument("-Dversioning.prefetch");
+            verifier.addCliArgument("-X");
+            verifier.addCliArgument("verify");
+            verifier.execute();
+
+            // Then
+            System.err.println(String.join("\n", verifier.loadFile(verifier.getBasedir(), verifier.getLogFileName(), false)));
+            verifier.verifyErrorFreeLog();
+            verifier.verifyTextInLog("prefetch git situation: timestamp, status, describe");
+            String expectedVersion = "1.2.3-1-DIRTY-" + LocalDateTime.now(ZoneOffset.UTC).getYear();
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+            Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedPomModel.getVersion()).isEqualTo(expectedVersion);
+        }
+    }
+
+    @Test
+    void branchVersioning_describeMaxDepth() throws Exception {
+
+        try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+            git.tag().setName("v1.2.3").call();
+            git.commit().setMessage("second commit").setAllowEmpty(true).call();
+            git.commit().setMessage("third commit").setAllowEmpty(true).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+            RefPatchDescription branchVersionDescription = createBranchVersionDescription();
+            branchVersionDescription.version = "${describe.tag}-${describe.distance}${describe.truncated:+-truncated}";
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                describeMaxDepth = 2;
+                refs.list.add(branchVersionDescription);
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.addCliArgument("verify");
+            verifier.execute();
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            String expectedVersion = "root-2-truncated";
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+            Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedPomModel.getVersion()).isEqualTo(expectedVersion);
+        }
+    }
+
+    @Test
+    void branchVersioning_describeTagPatterns() throws Exception {
+
+        try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+            git.tag().setName("api-1.0").call();
+            git.commit().setMessage("second commit").setAllowEmpty(true).call();
+            git.tag().setName("v1.2.3").call();
+            git.commit().setMessage("third commit").setAllowEmpty(true).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+            RefPatchDescription branchVersionDescription = createBranchVersionDescription();
+            branchVersionDescription.version = "${describe.tag}-${describe.distance}-${describe:api.tag}-${describe:api.distance}";
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                describeTagPattern = "v.+";
+                describeTagPatterns.put("api", "api-.+");
+                refs.list.add(branchVersionDescription);
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.addCliArgument("verify");
+            verifier.execute();
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            String expectedVersion = "v1.2.3-1-api-1.0-2";
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+            Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedPomModel.getVersion()).isEqualTo(expectedVersion);
+        }
+    }
+
     @Test
     void branchVersioningPluginWithDeps() throws Exception {
 
@@ -477,6 +645,58 @@ class GitVersioningExtensionIT {
         }
     }
 
+    @Test
+    void branchVersioning_multiModuleProject_moduleDescribeDistance() throws Exception {
+
+        try (Git git = Git.init().setInitialBranch("master").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            pomModel.setPackaging("pom");
+            pomModel.addModule("api");
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createVersionDescription(BRANCH, "${describe.tag}-${module.describe.distance}"));
+            }});
+
+            // api module
+            Path apiProjectDir = Files.createDirectories(projectDir.resolve("api"));
+            writeModel(apiProjectDir.resolve("pom.xml").toFile(), new Model() {{
+                setModelVersion(pomModel.getModelVersion());
+                setParent(new Parent() {{
+                    setGroupId(pomModel.getGroupId());
+                    setArtifactId(pomModel.getArtifactId());
+                    setVersion(pomModel.getVersion());
+                }});
+                setArtifactId("api");
+                setVersion(pomModel.getVersion());
+            }});
+
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("initial commit").call();
+            git.tag().setName("v1").call();
+            Files.writeString(apiProjectDir.resolve("api.txt"), "api");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("api commit").call();
+            Files.writeString(projectDir.resolve("README.md"), "readme");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("root commit").call();
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.addCliArgument("verify");
+            verifier.execute();
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedPomModel.getVersion()).isEqualTo("v1-2");
+
+            Model apiGitVersionedPomModel = readModel(apiProjectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(apiGitVersionedPomModel.getParent().getVersion()).isEqualTo("v1-2");
+            assertThat(apiGitVersionedPomModel.getVersion()).isEqualTo("v1-1");
+        }
+    }
+
     @Test
     void revVersioning_multiModuleProject_ambiguous_artifactId() throws Exception {
 
@@ -758,6 +978,75 @@ class GitVersioningExtensionIT {
         }
     }
 
+    @Test
+    void branchVersioning_multiModuleProject_parallelBuild() throws Exception {
+        try (Git git = Git.init().setInitialBranch("test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+
+            List<String> modules = List.of("api", "logic", "web", "batch", "client", "cli");
+            pomModel.setPackaging("pom");
+            modules.forEach(pomModel::addModule);
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            for (String module : modules) {
+                Path moduleProjectDir = Files.createDirectories(projectDir.resolve(module));
+                writeModel(moduleProjectDir.resolve("pom.xml").toFile(), new Model() {{
+                    setModelVersion(pomModel.getModelVersion());
+                    setParent(new Parent() {{
+                        setGroupId(pomModel.getGroupId());
+                        setArtifactId(pomModel.getArtifactId());
+                        setVersion(pomModel.getVersion());
+                    }});
+                    setArtifactId(module);
+                    if (!module.equals("api")) {
+                        addDependency(new Dependency() {{
+                            setGroupId(pomModel.getGroupId());
+                            setArtifactId("api");
+                            setVersion(pomModel.getVersion());
+                        }});
+                    }
+                }});
+            }
+
+            // When
+            Map<String, byte[]> gitVersionedPoms = new HashMap<>();
+            for (int run = 0; run < 2; run++) {
+                Verifier verifier = getVerifier(projectDir);
+                verifier.addCliArguments("-T", "4", "verify");
+                verifier.execute();
+
+                // Then
+                System.err.println(String.join("\n", verifier.loadFile(verifier.getBasedir(), verifier.getLogFileName(), false)));
+                verifier.verifyErrorFreeLog();
+                String expectedVersion = "test-gitVersioning";
+                for (String module : modules) {
+                    verifier.verifyTextInLog("Building " + module + " " + expectedVersion);
+
+                    File gitVersionedPomFile = projectDir.resolve(module).resolve(GIT_VERSIONING_POM_NAME).toFile();
+                    Model gitVersionedPomModel = readModel(gitVersionedPomFile);
+                    assertThat(gitVersionedPomModel.getParent().getVersion()).isEqualTo(expectedVersion);
+                    gitVersionedPomModel.getDependencies().forEach(dependency ->
+                            assertThat(dependency.getVersion()).isEqualTo(expectedVersion));
+
+                    // output needs to be deterministic across parallel builds
+                    byte[] gitVersionedPom = Files.readAllBytes(gitVersionedPomFile.toPath());
+                    byte[] previousGitVersionedPom = gitVersionedPoms.put(module, gitVersionedPom);
+                    if (previousGitVersionedPom != null) {
+                        assertThat(gitVersionedPom).isEqualTo(previousGitVersionedPom);
+                    }
+                    Files.delete(gitVersionedPomFile.toPath());
+                }
+            }
+        }
+    }
+
     @Test
     void branchVersioning_WithBuildTime() throws Exception {
 
@@ -1245,7 +1534,7 @@ class GitVersioningExtensionIT {
 
     // -----------------------------------------------------------------------------------------------------------------
 
-    private File writeExtensionsFile(Path projectDir) throws IOException {
+    static File writeExtensionsFile(Path projectDir) throws IOException {
         Path mvnDotDir = Files.createDirectories(projectDir.resolve(".mvn"));
         return Files.write(mvnDotDir.resolve("extensions.xml"), ("" +
                 "<extensions>\n" +
@@ -1279,7 +1568,7 @@ class GitVersioningExtensionIT {
         return refVersionDescription;
     }
 
-    private File writeExtensionConfigFile(Path projectDir, Configuration config) throws Exception {
+    static File writeExtensionConfigFile(Path projectDir, Configuration config) throws Exception {
         Path mvnDotDir = Files.createDirectories(projectDir.resolve(".mvn"));
         File configFile = mvnDotDir.resolve("maven-git-versioning-extension.xml").toFile();
         new XmlMapper()
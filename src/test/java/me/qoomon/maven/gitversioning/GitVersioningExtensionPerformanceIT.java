@@ -0,0 +1,236 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.qoomon.gitversioning.commons.SyntheticRepository;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+import org.apache.maven.model.Model;
+import org.apache.maven.shared.verifier.Verifier;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static me.qoomon.gitversioning.commons.GitRefType.BRANCH;
+import static me.qoomon.gitversioning.commons.SyntheticRepository.tagName;
+import static me.qoomon.maven.gitversioning.GitVersioningExtensionIT.*;
+import static me.qoomon.maven.gitversioning.GitVersioningModelProcessor.GIT_VERSIONING_POM_NAME;
+import static me.qoomon.maven.gitversioning.MavenUtil.readModel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds projects within large synthetic repositories, see {@link SyntheticRepository},
+ * and asserts upper bounds of git operation counters, see {@link MetricsReport}.
+ * <p>
+ * Counters are deterministic for a given repository, so bounds are close to the counts of the current implementation
+ * and regressions fail the build regardless of the machine.
+ * Wall times are checked against a generous sanity limit only, see {@link #TIMER_SANITY_LIMIT}.
+ */
+class GitVersioningExtensionPerformanceIT {
+
+    // fails hanging or runaway phases only, wall times vary too much between machines for tighter bounds
+    private static final Duration TIMER_SANITY_LIMIT = Duration.ofMinutes(2);
+
+    @TempDir
+    Path tempDir;
+
+    final Model pomModel = new Model() {{
+        setModelVersion("4.0.0");
+        setGroupId("test");
+        setArtifactId("test-artifact");
+        setVersion("0.0.0");
+    }};
+
+    @Test
+    void largeHistory() throws Exception {
+        // Given
+        Path projectDir = tempDir.resolve("project");
+        new SyntheticRepository()
+                .historyDepth(100_000)
+                .tagCount(2_000)
+                .annotatedTags(true)
+                .mergeInterval(50)
+                .mergeBranchLength(3)
+                .fileCount(100)
+                .create(projectDir.toFile()).close();
+        writeProject(projectDir, createVersionDescription("${describe.tag}-${describe.distance}", true));
+
+        // When
+        build(projectDir);
+
+        // Then
+        assertVersion(projectDir, tagName(1_999) + "-49");
+        assertTimerSanityLimit(projectDir);
+        Map<String, Long> counters = readCounters(projectDir);
+        // describe distance + tagged commit
+        assertThat(counters.get("git.describe.commits")).isLessThanOrEqualTo(49 + 1);
+        // each tag at most once
+        assertThat(counters.get("git.tags.peeled")).isLessThanOrEqualTo(2_000);
+        assertThat(counters.getOrDefault("git.tags.parsed", 0L)).isLessThanOrEqualTo(2_000);
+    }
+
+    @Test
+    void deepMergeGraph() throws Exception {
+        // Given
+        Path projectDir = tempDir.resolve("project");
+        new SyntheticRepository()
+                .historyDepth(20_000)
+                .tagCount(200)
+                .mergeInterval(10)
+                .mergeBranchLength(10)
+                .create(projectDir.toFile()).close();
+        writeProject(projectDir, createVersionDescription("${describe.tag}", false));
+
+        // When
+        build(projectDir);
+
+        // Then
+        assertVersion(projectDir, tagName(199));
+        assertTimerSanityLimit(projectDir);
+        Map<String, Long> counters = readCounters(projectDir);
+        // merge branches are walked by commit time, so commits beyond the tagged commit are visited, 379 currently
+        assertThat(counters.get("git.describe.commits")).isLessThanOrEqualTo(400);
+        assertThat(counters.get("git.tags.peeled")).isLessThanOrEqualTo(200);
+    }
+
+    @Test
+    void largeWorkTree() throws Exception {
+        // Given
+        Path projectDir = tempDir.resolve("project");
+        try (Git git = new SyntheticRepository()
+                .historyDepth(100)
+                .tagCount(1)
+                .fileCount(20_000)
+                .create(projectDir.toFile())) {
+            writeProject(projectDir, createVersionDescription("${describe.tag}${dirty}", true));
+            // ignore build files to keep work tree clean
+            Files.writeString(projectDir.resolve(".gitignore"), "target/\ntest-settings.xml\nlog.txt\n");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("add project").call();
+        }
+
+        // When
+        build(projectDir);
+
+        // Then
+        assertVersion(projectDir, tagName(0));
+        assertTimerSanityLimit(projectDir);
+        Map<String, Long> counters = readCounters(projectDir);
+        // each work tree file and index entry once, 20_207 currently
+        assertThat(counters.get("git.status.entries")).isLessThanOrEqualTo(20_250);
+        // history + project commit
+        assertThat(counters.get("git.describe.commits")).isLessThanOrEqualTo(100 + 1);
+        assertThat(counters.get("git.tags.peeled")).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void shallowClone() throws Exception {
+        // Given
+        Path sourceDir = tempDir.resolve("source");
+        Path projectDir = tempDir.resolve("project");
+        try (Git source = new SyntheticRepository()
+                .historyDepth(10_000)
+                .tagCount(100)
+                .create(sourceDir.toFile())) {
+            SyntheticRepository.shallowClone(source.getRepository(), projectDir.toFile(), 200).close();
+        }
+        writeProject(projectDir, createVersionDescription("${describe.tag}-${describe.distance}", true));
+
+        // When
+        build(projectDir);
+
+        // Then
+        assertVersion(projectDir, tagName(99) + "-99");
+        assertTimerSanityLimit(projectDir);
+        Map<String, Long> counters = readCounters(projectDir);
+        // describe distance + tagged commit, nothing beyond the shallow boundary
+        assertThat(counters.get("git.describe.commits")).isLessThanOrEqualTo(99 + 1);
+        assertThat(counters.get("git.tags.peeled")).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void linkedWorktree() throws Exception {
+        // Given
+        Path mainDir = tempDir.resolve("main");
+        Path projectDir = tempDir.resolve("worktree");
+        try (Git git = new SyntheticRepository()
+                .historyDepth(10_000)
+                .tagCount(100)
+                .create(mainDir.toFile());
+             Repository ignored = SyntheticRepository.addWorktree(git.getRepository(), projectDir.toFile(), "feature")) {
+            writeProject(projectDir, createVersionDescription("${ref}-${describe.tag}-${describe.distance}", true));
+        }
+
+        // When
+        build(projectDir);
+
+        // Then
+        assertVersion(projectDir, "feature-" + tagName(99) + "-99");
+        assertTimerSanityLimit(projectDir);
+        Map<String, Long> counters = readCounters(projectDir);
+        // describe distance + tagged commit
+        assertThat(counters.get("git.describe.commits")).isLessThanOrEqualTo(99 + 1);
+        assertThat(counters.get("git.tags.peeled")).isLessThanOrEqualTo(100);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private void writeProject(Path projectDir, RefPatchDescription versionDescription) throws Exception {
+        MavenUtil.writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+        writeExtensionsFile(projectDir);
+        writeExtensionConfigFile(projectDir, new Configuration() {{
+            refs.list.add(versionDescription);
+        }});
+    }
+
+    private static RefPatchDescription createVersionDescription(String format, boolean describeTagFirstParent) {
+        RefPatchDescription refVersionDescription = new RefPatchDescription();
+        refVersionDescription.type = BRANCH;
+        refVersionDescription.pattern = ".*";
+        refVersionDescription.version = format;
+        refVersionDescription.describeTagFirstParent = describeTagFirstParent;
+        return refVersionDescription;
+    }
+
+    private static void build(Path projectDir) throws Exception {
+        Verifier verifier = getVerifier(projectDir);
+        verifier.addCliArgument("-Dversioning.timings");
+        verifier.addCliArgument("verify");
+        verifier.execute();
+
+        System.err.println(String.join("\n", verifier.loadFile(verifier.getBasedir(), verifier.getLogFileName(), false)));
+        verifier.verifyErrorFreeLog();
+    }
+
+    private void assertVersion(Path projectDir, String expectedVersion) throws Exception {
+        Model gitVersionedPomModel = readModel(projectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+        assertThat(gitVersionedPomModel.getVersion()).isEqualTo(expectedVersion);
+    }
+
+    private static void assertTimerSanityLimit(Path projectDir) throws Exception {
+        readTimings(projectDir).forEach((name, duration) ->
+                assertThat(duration).as(name).isLessThan(TIMER_SANITY_LIMIT));
+    }
+
+    private static Map<String, Duration> readTimings(Path projectDir) throws Exception {
+        Map<String, Duration> timings = new HashMap<>();
+        readReport(projectDir).get("timers").forEach(timer -> timings.put(timer.get("name").asText(), Duration.ofNanos(timer.get("totalNanos").asLong())));
+        return timings;
+    }
+
+    private static Map<String, Long> readCounters(Path projectDir) throws Exception {
+        Map<String, Long> counters = new HashMap<>();
+        readReport(projectDir).get("counters").properties().forEach(counter -> counters.put(counter.getKey(), counter.getValue().asLong()));
+        return counters;
+    }
+
+    private static JsonNode readReport(Path projectDir) throws Exception {
+        return new ObjectMapper().readTree(Files.readAllBytes(projectDir.resolve("target").resolve(MetricsReport.REPORT_FILE_NAME)));
+    }
+}
@@ -0,0 +1,61 @@
+package me.qoomon.maven.gitversioning;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MavenUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeXml_newFile() throws Exception {
+        // given
+        File file = tempDir.resolve("pom.xml").toFile();
+        byte[] content = "<project/>".getBytes(UTF_8);
+
+        // when
+        MavenUtil.writeXml(file, content);
+
+        // then
+        assertThat(file).hasBinaryContent(content);
+        assertThat(tempDir).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    void writeXml_unchangedContent() throws Exception {
+        // given
+        File file = tempDir.resolve("pom.xml").toFile();
+        byte[] content = "<project/>".getBytes(UTF_8);
+        Files.write(file.toPath(), content);
+        long givenLastModified = 1_000_000_000_000L;
+        assertThat(file.setLastModified(givenLastModified)).isTrue();
+
+        // when
+        MavenUtil.writeXml(file, content);
+
+        // then
+        assertThat(file.lastModified()).isEqualTo(givenLastModified);
+    }
+
+    @Test
+    void writeXml_changedContentOfSameSize() throws Exception {
+        // given
+        File file = tempDir.resolve("pom.xml").toFile();
+        Files.write(file.toPath(), "<project/>".getBytes(UTF_8));
+        byte[] content = "<proJect/>".getBytes(UTF_8);
+
+        // when
+        MavenUtil.writeXml(file, content);
+
+        // then
+        assertThat(file).hasBinaryContent(content);
+    }
+}
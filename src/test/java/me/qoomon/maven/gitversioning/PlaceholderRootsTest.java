@@ -0,0 +1,130 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.Lazy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlaceholderRootsTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void names() {
+        // given
+        PlaceholderRoots roots = new PlaceholderRoots(executor);
+        roots.add("describe", Lazy.of("v1.0.0"), key -> key.startsWith("describe"));
+        roots.add("status", Lazy.of(true), key -> key.startsWith("dirty"));
+        roots.add("timestamp", Lazy.of(0L), key -> key.startsWith("commit.timestamp"));
+
+        // when
+        var names = roots.names(List.of("${describe.tag}${dirty}", "${commit}"));
+
+        // then
+        assertThat(names).containsExactly("describe", "status");
+    }
+
+    @Test
+    void resolve_inParallel() {
+        // given
+        CountDownLatch started = new CountDownLatch(2);
+        Lazy<String> describe = Lazy.by(() -> awaitOther(started, "v1.0.0"));
+        Lazy<Boolean> status = Lazy.by(() -> awaitOther(started, true));
+        PlaceholderRoots roots = new PlaceholderRoots(executor);
+        roots.add("describe", describe, key -> key.startsWith("describe"));
+        roots.add("status", status, key -> key.startsWith("dirty"));
+
+        // when
+        roots.resolve("${describe.tag}${dirty}");
+
+        // then
+        assertThat(describe.isInitialized()).isTrue();
+        assertThat(status.isInitialized()).isTrue();
+    }
+
+    @Test
+    void resolve_onlyNeededRoots() {
+        // given
+        Lazy<String> describe = Lazy.by(() -> "v1.0.0");
+        Lazy<Boolean> status = Lazy.by(() -> true);
+        Lazy<Long> timestamp = Lazy.by(() -> 0L);
+        PlaceholderRoots roots = new PlaceholderRoots(executor);
+        roots.add("describe", describe, key -> key.startsWith("describe"));
+        roots.add("status", status, key -> key.startsWith("dirty"));
+        roots.add("timestamp", timestamp, key -> key.startsWith("commit.timestamp"));
+
+        // when
+        roots.resolve("${describe.tag}${dirty}");
+
+        // then
+        assertThat(describe.isInitialized()).isTrue();
+        assertThat(status.isInitialized()).isTrue();
+        assertThat(timestamp.isInitialized()).isFalse();
+    }
+
+    @Test
+    void resolve_atMostOnce() {
+        // given
+        AtomicInteger describeCount = new AtomicInteger();
+        AtomicInteger statusCount = new AtomicInteger();
+        Lazy<Integer> describe = Lazy.by(describeCount::incrementAndGet);
+        Lazy<Integer> status = Lazy.by(statusCount::incrementAndGet);
+        PlaceholderRoots roots = new PlaceholderRoots(executor);
+        roots.add("describe", describe, key -> key.startsWith("describe"));
+        roots.add("status", status, key -> key.startsWith("dirty"));
+
+        // when
+        roots.resolve("${describe}${dirty}");
+        roots.resolve("${describe.tag}${dirty.snapshot}");
+        describe.get();
+        status.get();
+
+        // then
+        assertThat(describeCount.get()).isEqualTo(1);
+        assertThat(statusCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    void resolve_failure() {
+        // given
+        AtomicInteger statusCount = new AtomicInteger();
+        PlaceholderRoots roots = new PlaceholderRoots(executor);
+        roots.add("describe", Lazy.by(() -> "v1.0.0"), key -> key.startsWith("describe"));
+        roots.add("status", Lazy.by(() -> {
+            statusCount.incrementAndGet();
+            throw new IllegalStateException("status failed");
+        }), key -> key.startsWith("dirty"));
+
+        // when / then
+        assertThatThrownBy(() -> roots.resolve("${describe}${dirty}"))
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+        assertThat(statusCount.get()).isEqualTo(1);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    /**
+     * @return <code>value</code> as soon as all parties started, fails if roots are not resolved in parallel
+     */
+    private static <T> T awaitOther(CountDownLatch started, T value) throws InterruptedException {
+        started.countDown();
+        if (!started.await(10, SECONDS)) {
+            throw new IllegalStateException("roots are not resolved in parallel");
+        }
+        return value;
+    }
+}
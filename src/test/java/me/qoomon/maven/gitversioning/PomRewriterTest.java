@@ -0,0 +1,154 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PomRewriterTest {
+
+    @Test
+    void rewrite_unchangedModel() throws Exception {
+        // given
+        String pom = "" +
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<!-- header -->\n" +
+                "<project>\n" +
+                "    <groupId>test</groupId>\n" +
+                "    <artifactId>test-artifact</artifactId>\n" +
+                "    <version>1.0.0</version>\n" +
+                "    <properties>\n" +
+                "        <foo>a &amp; b</foo>\n" +
+                "    </properties>\n" +
+                "</project>\n";
+        byte[] pomBytes = pom.getBytes(UTF_8);
+
+        // when
+        byte[] result = PomRewriter.rewrite(pomBytes, readModel(pom));
+
+        // then
+        assertThat(result).isSameAs(pomBytes);
+    }
+
+    @Test
+    void rewrite_versions() throws Exception {
+        // given
+        String pom = "" +
+                "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" +
+                "    <parent>\n" +
+                "        <groupId>test</groupId>\n" +
+                "        <artifactId>test-parent</artifactId>\n" +
+                "        <version>1.0.0</version> <!-- parent version -->\n" +
+                "    </parent>\n" +
+                "    <artifactId>test-artifact</artifactId>\n" +
+                "    <version>1.0.0</version>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <version>1.0.0</version>\n" +
+                "            <groupId>test</groupId>\n" +
+                "            <artifactId>test-lib</artifactId>\n" +
+                "        </dependency>\n" +
+                "        <dependency>\n" +
+                "            <groupId>org.example</groupId>\n" +
+                "            <artifactId>example</artifactId>\n" +
+                "            <version>1.0.0</version>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "    <build>\n" +
+                "        <pluginManagement>\n" +
+                "            <plugins>\n" +
+                "                <plugin>\n" +
+                "                    <groupId>test</groupId>\n" +
+                "                    <artifactId>test-plugin</artifactId>\n" +
+                "                    <version><![CDATA[1.0.0]]></version>\n" +
+                "                </plugin>\n" +
+                "            </plugins>\n" +
+                "        </pluginManagement>\n" +
+                "    </build>\n" +
+                "</project>\n";
+        Model model = readModel(pom);
+        model.getParent().setVersion("2.0.0");
+        model.setVersion("2.0.0");
+        model.getDependencies().get(0).setVersion("2.0.0");
+        model.getBuild().getPluginManagement().getPlugins().get(0).setVersion("2.0.0");
+
+        // when
+        String result = new String(PomRewriter.rewrite(pom.getBytes(UTF_8), model), UTF_8);
+
+        // then
+        assertThat(result).isEqualTo(pom
+                .replace("<version>1.0.0</version> <!-- parent version -->", "<version>2.0.0</version> <!-- parent version -->")
+                .replace("    <version>1.0.0</version>\n    <dependencies>", "    <version>2.0.0</version>\n    <dependencies>")
+                .replace("<version>1.0.0</version>\n            <groupId>test</groupId>", "<version>2.0.0</version>\n            <groupId>test</groupId>")
+                .replace("<version><![CDATA[1.0.0]]></version>", "<version>2.0.0</version>"));
+    }
+
+    @Test
+    void rewrite_profileProperties() throws Exception {
+        // given
+        String pom = "" +
+                "<project>\n" +
+                "    <groupId>test</groupId>\n" +
+                "    <artifactId>test-artifact</artifactId>\n" +
+                "    <version>1.0.0</version>\n" +
+                "    <properties>\n" +
+                "        <foo>foo</foo>\n" +
+                "        <bar/>\n" +
+                "    </properties>\n" +
+                "    <profiles>\n" +
+                "        <profile>\n" +
+                "            <properties>\n" +
+                "                <foo>foo</foo>\n" +
+                "            </properties>\n" +
+                "            <id>test-profile</id>\n" +
+                "        </profile>\n" +
+                "    </profiles>\n" +
+                "</project>\n";
+        Model model = readModel(pom);
+        model.addProperty("foo", "<foo>");
+        model.addProperty("bar", "bar");
+        model.getProfiles().get(0).addProperty("foo", "profile-foo");
+
+        // when
+        String result = new String(PomRewriter.rewrite(pom.getBytes(UTF_8), model), UTF_8);
+
+        // then
+        assertThat(result).isEqualTo(pom
+                .replace("        <foo>foo</foo>\n        <bar/>", "        <foo>&lt;foo&gt;</foo>\n        <bar>bar</bar>")
+                .replace("                <foo>foo</foo>", "                <foo>profile-foo</foo>"));
+    }
+
+    @Test
+    void rewrite_unexpectedDependencyOrder() throws Exception {
+        // given
+        String pom = "" +
+                "<project>\n" +
+                "    <groupId>test</groupId>\n" +
+                "    <artifactId>test-artifact</artifactId>\n" +
+                "    <version>1.0.0</version>\n" +
+                "    <dependencies>\n" +
+                "        <dependency>\n" +
+                "            <groupId>test</groupId>\n" +
+                "            <artifactId>test-lib</artifactId>\n" +
+                "            <version>1.0.0</version>\n" +
+                "        </dependency>\n" +
+                "    </dependencies>\n" +
+                "</project>\n";
+        Model model = readModel(pom);
+        model.getDependencies().get(0).setArtifactId("other-lib");
+
+        // when / then
+        assertThatThrownBy(() -> PomRewriter.rewrite(pom.getBytes(UTF_8), model))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unexpected difference of xml and model dependencies order");
+    }
+
+    private static Model readModel(String pom) throws Exception {
+        return new MavenXpp3Reader().read(new ByteArrayInputStream(pom.getBytes(UTF_8)));
+    }
+}
@@ -0,0 +1,181 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.GitRefType;
+import me.qoomon.gitversioning.commons.GitSituation;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescriptionList;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+import static me.qoomon.gitversioning.commons.GitRefType.BRANCH;
+import static me.qoomon.gitversioning.commons.GitRefType.COMMIT;
+import static me.qoomon.gitversioning.commons.GitRefType.TAG;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefRuleMatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void match_firstMatchingBranchRule() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(BRANCH, "main"),
+                ref(BRANCH, "feature/(?<feature>.+)"),
+                ref(BRANCH, ".+")));
+
+        // when
+        GitVersionDetails details = matcher.match(gitSituation("feature/foo", List.of("v1.0.0")));
+
+        // then
+        assertThat(details.getRefType()).isEqualTo(BRANCH);
+        assertThat(details.getRefName()).isEqualTo("feature/foo");
+        assertThat(details.getPatchDescription().pattern).isEqualTo("feature/(?<feature>.+)");
+    }
+
+    @Test
+    void match_detached_firstTagOfFirstMatchingTagRule() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(BRANCH, ".+"),
+                ref(TAG, "v(?<version>\\d+\\.\\d+\\.\\d+)"),
+                ref(TAG, ".+")));
+
+        // when
+        GitVersionDetails details = matcher.match(gitSituation(null, List.of("latest", "v2.0.0", "v1.0.0")));
+
+        // then
+        assertThat(details.getRefType()).isEqualTo(TAG);
+        assertThat(details.getRefName()).isEqualTo("v2.0.0");
+        assertThat(details.getPatchDescription().pattern).isEqualTo("v(?<version>\\d+\\.\\d+\\.\\d+)");
+    }
+
+    @Test
+    void match_considerTagsOnBranches_ruleOrderWins() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(true,
+                ref(TAG, "v.+"),
+                ref(BRANCH, ".+")));
+
+        // when
+        GitVersionDetails details = matcher.match(gitSituation("main", List.of("v1.0.0")));
+
+        // then
+        assertThat(details.getRefType()).isEqualTo(TAG);
+        assertThat(details.getRefName()).isEqualTo("v1.0.0");
+    }
+
+    @Test
+    void match_tagsOnBranchesIgnored() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(TAG, "v.+"),
+                ref(BRANCH, "main")));
+
+        // when
+        GitVersionDetails details = matcher.match(gitSituation("main", List.of("v1.0.0")));
+
+        // then
+        assertThat(details.getRefType()).isEqualTo(BRANCH);
+        assertThat(details.getRefName()).isEqualTo("main");
+    }
+
+    @Test
+    void match_backReference() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(BRANCH, "(a+)-\\1"),
+                ref(BRANCH, "(b+)-\\1")));
+
+        // when
+        GitVersionDetails details = matcher.match(gitSituation("bb-bb", List.of()));
+
+        // then
+        assertThat(details.getPatchDescription().pattern).isEqualTo("(b+)-\\1");
+    }
+
+    @Test
+    void match_noMatch() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(BRANCH, "main"),
+                ref(TAG, ".+")));
+
+        // when
+        GitVersionDetails details = matcher.match(gitSituation("develop", List.of("v1.0.0")));
+
+        // then
+        assertThat(details).isNull();
+    }
+
+    @Test
+    void match_invalidRuleAfterMatchingRule() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(BRANCH, "main"),
+                ref(BRANCH, "feature/(.+")));
+
+        // when
+        GitVersionDetails details = matcher.match(gitSituation("main", List.of()));
+
+        // then
+        assertThat(details.getRefName()).isEqualTo("main");
+    }
+
+    @Test
+    void match_invalidRuleBeforeMatchingRule() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(BRANCH, "feature/(.+"),
+                ref(BRANCH, "main")));
+        GitSituation gitSituation = gitSituation("main", List.of());
+
+        // when / then
+        assertThatThrownBy(() -> matcher.match(gitSituation)).isInstanceOf(PatternSyntaxException.class);
+    }
+
+    @Test
+    void match_unexpectedRefType() throws Exception {
+        // given
+        RefRuleMatcher matcher = new RefRuleMatcher(refs(false,
+                ref(COMMIT, ".+"),
+                ref(BRANCH, "main")));
+        GitSituation gitSituation = gitSituation("main", List.of());
+
+        // when / then
+        assertThatThrownBy(() -> matcher.match(gitSituation)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // -----------------------------------------------------------------------------------------------------------------
+
+    private GitSituation gitSituation(String branch, List<String> tags) throws Exception {
+        Git git = Git.init().setDirectory(tempDir.toFile()).call();
+        return new GitSituation(git.getRepository()) {
+            {
+                setBranch(branch);
+                setTags(tags);
+            }
+        };
+    }
+
+    private static RefPatchDescriptionList refs(boolean considerTagsOnBranches, RefPatchDescription... refs) {
+        RefPatchDescriptionList refList = new RefPatchDescriptionList();
+        refList.considerTagsOnBranches = considerTagsOnBranches;
+        refList.list.addAll(List.of(refs));
+        return refList;
+    }
+
+    private static RefPatchDescription ref(GitRefType type, String pattern) {
+        RefPatchDescription ref = new RefPatchDescription();
+        ref.type = type;
+        ref.pattern = pattern;
+        return ref;
+    }
+}
@@ -0,0 +1,60 @@
+package me.qoomon.maven.gitversioning;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RootDirectoriesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void of_rootDirectoriesInParentDirectories() throws Exception {
+        // given
+        Git.init().setDirectory(tempDir.toFile()).call().close();
+        Path mvnDirectory = Files.createDirectories(tempDir.resolve("project").resolve(".mvn"));
+        Path moduleDirectory = Files.createDirectories(tempDir.resolve("project").resolve("module").resolve("submodule"));
+
+        // when
+        RootDirectories rootDirectories = RootDirectories.of(moduleDirectory.toFile());
+
+        // then
+        assertThat(rootDirectories.getMvnDirectory()).isEqualTo(mvnDirectory.toFile());
+        assertThat(rootDirectories.getGitDirectory()).isEqualTo(tempDir.resolve(".git").toFile());
+    }
+
+    @Test
+    void of_noGitDirectory() throws Exception {
+        // given
+        Path mvnDirectory = Files.createDirectories(tempDir.resolve(".mvn"));
+
+        // when
+        RootDirectories rootDirectories = RootDirectories.of(tempDir.toFile());
+
+        // then
+        assertThat(rootDirectories.getMvnDirectory()).isEqualTo(mvnDirectory.toFile());
+        assertThat(rootDirectories.getGitDirectory()).isNull();
+    }
+
+    @Test
+    void of_cachedResultRevalidated() throws Exception {
+        // given
+        Git.init().setDirectory(tempDir.toFile()).call().close();
+        File mvnDirectory = Files.createDirectories(tempDir.resolve(".mvn")).toFile();
+        RootDirectories.of(tempDir.toFile());
+        Files.delete(mvnDirectory.toPath());
+
+        // when
+        RootDirectories rootDirectories = RootDirectories.of(tempDir.toFile());
+
+        // then
+        assertThat(rootDirectories.getMvnDirectory()).isNotEqualTo(mvnDirectory);
+    }
+}
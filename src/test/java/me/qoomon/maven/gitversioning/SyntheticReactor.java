@@ -0,0 +1,104 @@
+package me.qoomon.maven.gitversioning;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static me.qoomon.maven.gitversioning.MavenUtil.writeModel;
+
+/**
+ * Generates multi module projects of configurable size for tests and benchmarks.
+ * <p>
+ * Each module depends on up to <code>dependencyCount</code> of its preceding modules and on the same number of external artifacts.
+ */
+public final class SyntheticReactor {
+
+    public static final String GROUP_ID = "synthetic";
+    public static final String VERSION = "0.0.0";
+
+    private int moduleCount = 10;
+    private int dependencyCount = 3;
+    private int propertyCount = 3;
+
+    public SyntheticReactor moduleCount(int moduleCount) {
+        this.moduleCount = moduleCount;
+        return this;
+    }
+
+    public SyntheticReactor dependencyCount(int dependencyCount) {
+        this.dependencyCount = dependencyCount;
+        return this;
+    }
+
+    public SyntheticReactor propertyCount(int propertyCount) {
+        this.propertyCount = propertyCount;
+        return this;
+    }
+
+    /**
+     * @param directory root project directory
+     * @return pom files, root project pom file first
+     */
+    public List<File> create(File directory) throws IOException {
+        List<File> pomFiles = new ArrayList<>();
+
+        Model rootModel = new Model();
+        rootModel.setModelVersion("4.0.0");
+        rootModel.setGroupId(GROUP_ID);
+        rootModel.setArtifactId("root");
+        rootModel.setVersion(VERSION);
+        rootModel.setPackaging("pom");
+        for (int propertyIndex = 0; propertyIndex < propertyCount; propertyIndex++) {
+            rootModel.addProperty("property" + propertyIndex, "value" + propertyIndex);
+        }
+        for (int moduleIndex = 0; moduleIndex < moduleCount; moduleIndex++) {
+            rootModel.addModule(moduleName(moduleIndex));
+        }
+        File rootPomFile = new File(directory, "pom.xml");
+        writeModel(rootPomFile, rootModel);
+        pomFiles.add(rootPomFile);
+
+        for (int moduleIndex = 0; moduleIndex < moduleCount; moduleIndex++) {
+            Model moduleModel = new Model();
+            moduleModel.setModelVersion("4.0.0");
+            Parent parent = new Parent();
+            parent.setGroupId(GROUP_ID);
+            parent.setArtifactId(rootModel.getArtifactId());
+            parent.setVersion(VERSION);
+            moduleModel.setParent(parent);
+            moduleModel.setArtifactId(moduleName(moduleIndex));
+            for (int dependencyIndex = Math.max(0, moduleIndex - dependencyCount); dependencyIndex < moduleIndex; dependencyIndex++) {
+                moduleModel.addDependency(dependency(GROUP_ID, moduleName(dependencyIndex), VERSION));
+            }
+            for (int dependencyIndex = 0; dependencyIndex < dependencyCount; dependencyIndex++) {
+                moduleModel.addDependency(dependency("external", "library" + dependencyIndex, "1." + dependencyIndex + ".0"));
+            }
+
+            File moduleDirectory = new File(directory, moduleName(moduleIndex));
+            if (!moduleDirectory.isDirectory() && !moduleDirectory.mkdirs()) {
+                throw new IOException("Unable to create directory " + moduleDirectory);
+            }
+            File modulePomFile = new File(moduleDirectory, "pom.xml");
+            writeModel(modulePomFile, moduleModel);
+            pomFiles.add(modulePomFile);
+        }
+        return pomFiles;
+    }
+
+    public static String moduleName(int moduleIndex) {
+        return String.format("module-%04d", moduleIndex);
+    }
+
+    private static Dependency dependency(String groupId, String artifactId, String version) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(groupId);
+        dependency.setArtifactId(artifactId);
+        dependency.setVersion(version);
+        return dependency;
+    }
+}